@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.copyobject;
+
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.rmi.Remote;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.com.sun.corba.se.impl.orbutil.ClassCache;
+import org.jboss.com.sun.corba.se.impl.util.Utility;
+import org.jboss.com.sun.corba.se.spi.copyobject.ReflectiveCopyException;
+import org.jboss.sun.corba.Bridge;
+import org.omg.CORBA.portable.IDLEntity;
+
+/**
+ * The plan for copying the instances of one class with a {@link ReflectiveObjectCopierImpl}.
+ * <p>
+ * The plan is built once per class and cached. For ordinary serializable classes it holds the offsets of the fields
+ * that serialization would copy, in two plain arrays, and the constructor that serialization would use to create an
+ * instance, so that copying an instance is one loop over the arrays that goes straight to the Bridge. As with
+ * serialization, transient fields and the fields of non-serializable superclasses are not copied.
+ */
+abstract class ClassCopier
+{
+    private static final Bridge bridge = AccessController.doPrivileged(new PrivilegedAction<Bridge>()
+    {
+        public Bridge run()
+        {
+            return Bridge.get();
+        }
+    });
+
+    private static final ClassCache<ClassCopier> copiers = new ClassCache<ClassCopier>();
+
+    /**
+     * Returns the copy of obj, an instance of the class of this plan that has not been copied yet.
+     */
+    abstract Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException;
+
+    static ClassCopier get(final Class<?> cls)
+    {
+        ClassCopier result = copiers.get(cls);
+        if (result == null)
+        {
+            result = AccessController.doPrivileged(new PrivilegedAction<ClassCopier>()
+            {
+                public ClassCopier run()
+                {
+                    return makeClassCopier(cls);
+                }
+            });
+            result = copiers.putIfAbsent(cls, result);
+        }
+        return result;
+    }
+
+    private static ClassCopier makeClassCopier(Class<?> cls)
+    {
+        if (isImmutable(cls))
+            return immutableCopier;
+
+        if (Remote.class.isAssignableFrom(cls))
+            return remoteCopier;
+
+        // Object references are passed by reference.
+        if (org.omg.CORBA.Object.class.isAssignableFrom(cls))
+            return immutableCopier;
+
+        if (cls.isArray())
+        {
+            if (cls.getComponentType().isPrimitive())
+                return primitiveArrayCopier;
+            else
+                return objectArrayCopier;
+        }
+
+        // Only the exact classes, since a subclass may add state or change the behavior of the collection. These
+        // classes have their own writeObject, so they would otherwise need the stream copier.
+        if (cls == ArrayList.class || cls == LinkedList.class || cls == HashSet.class || cls == LinkedHashSet.class
+                || cls == ArrayDeque.class)
+            return new CollectionCopier(cls);
+
+        if (cls == HashMap.class || cls == Hashtable.class)
+            return new MapCopier(cls);
+
+        if (cls == LinkedHashMap.class)
+            return linkedHashMapCopier;
+
+        if (cls == TreeMap.class)
+            return treeMapCopier;
+
+        if (cls == Date.class)
+            return dateCopier;
+
+        return makeFieldCopier(cls);
+    }
+
+    private static boolean isImmutable(Class<?> cls)
+    {
+        return cls == String.class || cls == Boolean.class || cls == Byte.class || cls == Character.class
+                || cls == Short.class || cls == Integer.class || cls == Long.class || cls == Float.class
+                || cls == Double.class || cls == Class.class || cls == BigInteger.class || cls == BigDecimal.class
+                || Enum.class.isAssignableFrom(cls);
+    }
+
+    private static ClassCopier makeFieldCopier(Class<?> cls)
+    {
+        if (!Serializable.class.isAssignableFrom(cls))
+            return new UnsupportedCopier(cls, "not serializable");
+
+        // IDL entities may be marshalled by their helpers, and externalizable classes marshal themselves.
+        if (IDLEntity.class.isAssignableFrom(cls) || Externalizable.class.isAssignableFrom(cls))
+            return new UnsupportedCopier(cls, "custom marshaled");
+
+        for (Class<?> c = cls; c != null; c = c.getSuperclass())
+        {
+            if (hasMethod(c, "writeReplace") || hasMethod(c, "readResolve"))
+                return new UnsupportedCopier(cls, "replaced by serialization");
+        }
+
+        Class<?> firstNonSerializable = cls;
+        List<Field> fields = new ArrayList<Field>();
+        for (; Serializable.class.isAssignableFrom(firstNonSerializable); firstNonSerializable = firstNonSerializable
+                .getSuperclass())
+        {
+            Class<?> c = firstNonSerializable;
+            if (hasMethod(c, "writeObject", ObjectOutputStream.class)
+                    || hasMethod(c, "readObject", ObjectInputStream.class) || hasMethod(c, "readObjectNoData"))
+                return new UnsupportedCopier(cls, "custom marshaled");
+
+            Field[] declared = c.getDeclaredFields();
+            for (int i = 0; i < declared.length; i++)
+            {
+                Field field = declared[i];
+                int mods = field.getModifiers();
+                if (field.getName().equals("serialPersistentFields") && Modifier.isStatic(mods))
+                    return new UnsupportedCopier(cls, "custom marshaled");
+
+                if (!Modifier.isStatic(mods) && !Modifier.isTransient(mods))
+                    fields.add(field);
+            }
+        }
+
+        Constructor<?> cons = getSerializableConstructor(cls, firstNonSerializable);
+        if (cons == null)
+            return new UnsupportedCopier(cls, "no accessible no-arg constructor in " + firstNonSerializable.getName());
+
+        return new FieldCopier(cons, fields);
+    }
+
+    private static boolean hasMethod(Class<?> cls, String name, Class<?>... paramTypes)
+    {
+        try
+        {
+            cls.getDeclaredMethod(name, paramTypes);
+            return true;
+        }
+        catch (NoSuchMethodException exc)
+        {
+            return false;
+        }
+    }
+
+    // Returns the constructor that serialization uses to create an instance of cls, which runs the no-arg constructor
+    // of its first non-serializable superclass, or null if that constructor cannot be used.
+    private static Constructor<?> getSerializableConstructor(Class<?> cls, Class<?> firstNonSerializable)
+    {
+        Constructor<?> cons;
+        try
+        {
+            cons = firstNonSerializable.getDeclaredConstructor();
+        }
+        catch (NoSuchMethodException exc)
+        {
+            return null;
+        }
+
+        int mods = cons.getModifiers();
+        if (Modifier.isPrivate(mods))
+            return null;
+
+        if (!Modifier.isPublic(mods) && !Modifier.isProtected(mods)
+                && !(samePackage(cls, firstNonSerializable) && cls.getClassLoader() == firstNonSerializable
+                        .getClassLoader()))
+            return null;
+
+        cons = bridge.newConstructorForSerialization(cls, cons);
+        cons.setAccessible(true);
+        return cons;
+    }
+
+    private static boolean samePackage(Class<?> cls1, Class<?> cls2)
+    {
+        String name1 = cls1.getName();
+        String name2 = cls2.getName();
+        int idx1 = name1.lastIndexOf('.');
+        int idx2 = name2.lastIndexOf('.');
+        return (idx1 == idx2) && name1.regionMatches(0, name2, 0, idx1 + 1);
+    }
+
+    private static final ClassCopier immutableCopier = new ClassCopier()
+    {
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj)
+        {
+            return obj;
+        }
+    };
+
+    private static final ClassCopier remoteCopier = new ClassCopier()
+    {
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj)
+        {
+            // Make sure it is connected and converted to a stub (if needed), as when it is marshalled.
+            Object result = Utility.autoConnect(obj, copier.getORB(), true);
+            copier.register(obj, result);
+            return result;
+        }
+    };
+
+    private static final ClassCopier primitiveArrayCopier = new ClassCopier()
+    {
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj)
+        {
+            int length = Array.getLength(obj);
+            Object result = Array.newInstance(obj.getClass().getComponentType(), length);
+            System.arraycopy(obj, 0, result, 0, length);
+            copier.register(obj, result);
+            return result;
+        }
+    };
+
+    private static final ClassCopier objectArrayCopier = new ClassCopier()
+    {
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            Object[] array = (Object[]) obj;
+            Object[] result = (Object[]) Array.newInstance(obj.getClass().getComponentType(), array.length);
+            copier.register(obj, result);
+
+            try
+            {
+                for (int i = 0; i < array.length; i++)
+                    result[i] = copier.copyObject(array[i]);
+            }
+            catch (ArrayStoreException exc)
+            {
+                // A Remote object was copied to a stub that does not fit the component type.
+                throw new ReflectiveCopyException("Cannot copy " + obj.getClass().getName(), exc);
+            }
+
+            return result;
+        }
+    };
+
+    private static final ClassCopier dateCopier = new ClassCopier()
+    {
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj)
+        {
+            Object result = ((Date) obj).clone();
+            copier.register(obj, result);
+            return result;
+        }
+    };
+
+    private static final ClassCopier treeMapCopier = new ClassCopier()
+    {
+        @SuppressWarnings("unchecked")
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            TreeMap<Object, Object> map = (TreeMap<Object, Object>) obj;
+            TreeMap<Object, Object> result = new TreeMap<Object, Object>(
+                    (Comparator<Object>) copier.copyObject(map.comparator()));
+            copier.register(obj, result);
+
+            for (Map.Entry<Object, Object> entry : map.entrySet())
+                result.put(copier.copyObject(entry.getKey()), copier.copyObject(entry.getValue()));
+
+            return result;
+        }
+    };
+
+    // The access order of a LinkedHashMap is only visible through its field, which serialization also copies.
+    private static final Field accessOrderField = AccessController.doPrivileged(new PrivilegedAction<Field>()
+    {
+        public Field run()
+        {
+            try
+            {
+                Field field = LinkedHashMap.class.getDeclaredField("accessOrder");
+                field.setAccessible(true);
+                return field;
+            }
+            catch (Exception exc)
+            {
+                return null;
+            }
+        }
+    });
+
+    private static final ClassCopier linkedHashMapCopier = new ClassCopier()
+    {
+        @SuppressWarnings("unchecked")
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            LinkedHashMap<Object, Object> map = (LinkedHashMap<Object, Object>) obj;
+            LinkedHashMap<Object, Object> result = new LinkedHashMap<Object, Object>(16, 0.75f, isAccessOrder(map));
+            copier.register(obj, result);
+
+            // Iterating does not change the access order.
+            for (Map.Entry<Object, Object> entry : map.entrySet())
+                result.put(copier.copyObject(entry.getKey()), copier.copyObject(entry.getValue()));
+
+            return result;
+        }
+
+        private boolean isAccessOrder(LinkedHashMap<?, ?> map) throws ReflectiveCopyException
+        {
+            if (accessOrderField == null)
+                throw new ReflectiveCopyException("Cannot copy " + LinkedHashMap.class.getName()
+                        + ": access order is not accessible");
+
+            try
+            {
+                return accessOrderField.getBoolean(map);
+            }
+            catch (IllegalAccessException exc)
+            {
+                throw new ReflectiveCopyException("Cannot copy " + LinkedHashMap.class.getName(), exc);
+            }
+        }
+    };
+
+    private static final class UnsupportedCopier extends ClassCopier
+    {
+        private final String message;
+
+        UnsupportedCopier(Class<?> cls, String reason)
+        {
+            message = "Cannot copy " + cls.getName() + ": " + reason;
+        }
+
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            throw new ReflectiveCopyException(message);
+        }
+    }
+
+    private static final class CollectionCopier extends ClassCopier
+    {
+        private final Class<?> cls;
+
+        CollectionCopier(Class<?> cls)
+        {
+            this.cls = cls;
+        }
+
+        @SuppressWarnings("unchecked")
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            Collection<Object> collection = (Collection<Object>) obj;
+            Collection<Object> result = (Collection<Object>) newInstance(cls);
+            copier.register(obj, result);
+
+            for (Object element : collection)
+                result.add(copier.copyObject(element));
+
+            return result;
+        }
+    }
+
+    private static final class MapCopier extends ClassCopier
+    {
+        private final Class<?> cls;
+
+        MapCopier(Class<?> cls)
+        {
+            this.cls = cls;
+        }
+
+        @SuppressWarnings("unchecked")
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            Map<Object, Object> map = (Map<Object, Object>) obj;
+            Map<Object, Object> result = (Map<Object, Object>) newInstance(cls);
+            copier.register(obj, result);
+
+            for (Map.Entry<Object, Object> entry : map.entrySet())
+                result.put(copier.copyObject(entry.getKey()), copier.copyObject(entry.getValue()));
+
+            return result;
+        }
+    }
+
+    private static final class FieldCopier extends ClassCopier
+    {
+        // Dense type indexes, so that the switch below compiles to a table switch.
+        private static final int OBJECT = 0;
+
+        private static final int BYTE = 1;
+
+        private static final int BOOLEAN = 2;
+
+        private static final int CHAR = 3;
+
+        private static final int SHORT = 4;
+
+        private static final int INT = 5;
+
+        private static final int LONG = 6;
+
+        private static final int FLOAT = 7;
+
+        private static final int DOUBLE = 8;
+
+        private final Constructor<?> cons;
+
+        private final int[] types;
+
+        private final long[] fieldIDs;
+
+        // The declared types of the object fields, which the copies must still fit: a Remote object may be copied
+        // to a stub. Null for primitive fields.
+        private final Class<?>[] fieldTypes;
+
+        FieldCopier(Constructor<?> cons, List<Field> fields)
+        {
+            this.cons = cons;
+            types = new int[fields.size()];
+            fieldIDs = new long[fields.size()];
+            fieldTypes = new Class<?>[fields.size()];
+
+            for (int i = 0; i < types.length; i++)
+            {
+                Field field = fields.get(i);
+                types[i] = typeOf(field.getType());
+                fieldIDs[i] = bridge.objectFieldOffset(field);
+                if (types[i] == OBJECT)
+                    fieldTypes[i] = field.getType();
+            }
+        }
+
+        private static int typeOf(Class<?> type)
+        {
+            if (type == byte.class)
+                return BYTE;
+            else if (type == boolean.class)
+                return BOOLEAN;
+            else if (type == char.class)
+                return CHAR;
+            else if (type == short.class)
+                return SHORT;
+            else if (type == int.class)
+                return INT;
+            else if (type == long.class)
+                return LONG;
+            else if (type == float.class)
+                return FLOAT;
+            else if (type == double.class)
+                return DOUBLE;
+            else
+                return OBJECT;
+        }
+
+        Object copy(ReflectiveObjectCopierImpl copier, Object obj) throws ReflectiveCopyException
+        {
+            Object result = newInstance(cons);
+            copier.register(obj, result);
+
+            final int[] types = this.types;
+            final long[] fieldIDs = this.fieldIDs;
+
+            for (int i = 0; i < types.length; i++)
+            {
+                long fieldID = fieldIDs[i];
+                switch (types[i])
+                {
+                    case OBJECT :
+                        Object value = copier.copyObject(bridge.getObject(obj, fieldID));
+                        if (value != null && !fieldTypes[i].isInstance(value))
+                            throw new ReflectiveCopyException("Cannot copy " + obj.getClass().getName() + ": a "
+                                    + value.getClass().getName() + " does not fit a field of type "
+                                    + fieldTypes[i].getName());
+                        bridge.putObject(result, fieldID, value);
+                        break;
+                    case BYTE :
+                        bridge.putByte(result, fieldID, bridge.getByte(obj, fieldID));
+                        break;
+                    case BOOLEAN :
+                        bridge.putBoolean(result, fieldID, bridge.getBoolean(obj, fieldID));
+                        break;
+                    case CHAR :
+                        bridge.putChar(result, fieldID, bridge.getChar(obj, fieldID));
+                        break;
+                    case SHORT :
+                        bridge.putShort(result, fieldID, bridge.getShort(obj, fieldID));
+                        break;
+                    case INT :
+                        bridge.putInt(result, fieldID, bridge.getInt(obj, fieldID));
+                        break;
+                    case LONG :
+                        bridge.putLong(result, fieldID, bridge.getLong(obj, fieldID));
+                        break;
+                    case FLOAT :
+                        bridge.putFloat(result, fieldID, bridge.getFloat(obj, fieldID));
+                        break;
+                    case DOUBLE :
+                        bridge.putDouble(result, fieldID, bridge.getDouble(obj, fieldID));
+                        break;
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private static Object newInstance(Class<?> cls) throws ReflectiveCopyException
+    {
+        try
+        {
+            return cls.newInstance();
+        }
+        catch (InstantiationException exc)
+        {
+            throw new ReflectiveCopyException("Cannot create an instance of " + cls.getName(), exc);
+        }
+        catch (IllegalAccessException exc)
+        {
+            throw new ReflectiveCopyException("Cannot create an instance of " + cls.getName(), exc);
+        }
+    }
+
+    private static Object newInstance(Constructor<?> cons) throws ReflectiveCopyException
+    {
+        try
+        {
+            return cons.newInstance();
+        }
+        catch (InstantiationException exc)
+        {
+            throw new ReflectiveCopyException("Cannot create an instance of " + cons.getDeclaringClass().getName(), exc);
+        }
+        catch (IllegalAccessException exc)
+        {
+            throw new ReflectiveCopyException("Cannot create an instance of " + cons.getDeclaringClass().getName(), exc);
+        }
+        catch (InvocationTargetException exc)
+        {
+            throw new ReflectiveCopyException("Cannot create an instance of " + cons.getDeclaringClass().getName(), exc);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.copyobject;
+
+import org.jboss.com.sun.corba.se.spi.copyobject.ObjectCopier;
+import org.jboss.com.sun.corba.se.spi.copyobject.ReflectiveCopyException;
+
+/**
+ * Copies an object with a first copier, and with a second copier if the first one cannot copy it. The whole object
+ * graph is always copied by one copier, so that all of its aliasing is preserved.
+ */
+public class FallbackObjectCopierImpl implements ObjectCopier
+{
+    private final ObjectCopier first;
+
+    private final ObjectCopier second;
+
+    public FallbackObjectCopierImpl(ObjectCopier first, ObjectCopier second)
+    {
+        this.first = first;
+        this.second = second;
+    }
+
+    public Object copy(Object src) throws ReflectiveCopyException
+    {
+        try
+        {
+            return first.copy(src);
+        }
+        catch (ReflectiveCopyException rce)
+        {
+            // The first copier does not handle some class in the graph.
+            return second.copy(src);
+        }
+    }
+}
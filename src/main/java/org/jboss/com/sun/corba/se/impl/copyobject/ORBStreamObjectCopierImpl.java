@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.copyobject;
+
+import java.io.Serializable;
+import java.rmi.Remote;
+
+import org.jboss.com.sun.corba.se.impl.encoding.EncapsOutputStream;
+import org.jboss.com.sun.corba.se.impl.util.Utility;
+import org.jboss.com.sun.corba.se.spi.copyobject.ObjectCopier;
+import org.jboss.com.sun.corba.se.spi.orb.ORB;
+import org.omg.CORBA_2_3.portable.InputStream;
+
+/**
+ * Copies an object by marshalling it to a CDR encapsulation and reading it back, exactly as a remote call would.
+ */
+public class ORBStreamObjectCopierImpl implements ObjectCopier
+{
+    private final ORB orb;
+
+    public ORBStreamObjectCopierImpl(ORB orb)
+    {
+        this.orb = orb;
+    }
+
+    public Object copy(Object obj)
+    {
+        if (obj instanceof Remote)
+        {
+            // Yes, so make sure it is connected and converted to a stub (if needed)...
+            return Utility.autoConnect(obj, orb, true);
+        }
+
+        EncapsOutputStream os = new EncapsOutputStream(orb);
+        os.write_value((Serializable) obj);
+        InputStream is = (InputStream) os.create_input_stream();
+        return is.read_value();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.copyobject;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jboss.com.sun.corba.se.spi.copyobject.ObjectCopier;
+import org.jboss.com.sun.corba.se.spi.copyobject.ReflectiveCopyException;
+import org.jboss.com.sun.corba.se.spi.orb.ORB;
+
+/**
+ * Copies an object graph in memory, using a {@link ClassCopier} for each class. Every object is copied only once, so
+ * the copy has the same aliasing as the original.
+ * <p>
+ * Classes that define their own serialization cannot be copied this way, and make the copy fail with a
+ * ReflectiveCopyException. This copier is meant to be used in front of a stream copier through a
+ * {@link FallbackObjectCopierImpl}, which then copies the whole graph again.
+ */
+public class ReflectiveObjectCopierImpl implements ObjectCopier
+{
+    private final ORB orb;
+
+    // Maps each object already copied to its copy.
+    private final Map<Object, Object> oldToNew = new IdentityHashMap<Object, Object>();
+
+    public ReflectiveObjectCopierImpl(ORB orb)
+    {
+        this.orb = orb;
+    }
+
+    public Object copy(Object obj) throws ReflectiveCopyException
+    {
+        try
+        {
+            return copyObject(obj);
+        }
+        finally
+        {
+            oldToNew.clear();
+        }
+    }
+
+    ORB getORB()
+    {
+        return orb;
+    }
+
+    /**
+     * Returns the copy of obj, copying it if it has not been copied yet.
+     */
+    Object copyObject(Object obj) throws ReflectiveCopyException
+    {
+        if (obj == null)
+            return null;
+
+        Object result = oldToNew.get(obj);
+        if (result == null)
+            result = ClassCopier.get(obj.getClass()).copy(this, obj);
+
+        return result;
+    }
+
+    /**
+     * Records copy as the copy of obj. A ClassCopier must call this before copying anything that obj refers to, so that
+     * cycles back to obj resolve to copy.
+     */
+    void register(Object obj, Object copy)
+    {
+        oldToNew.put(obj, copy);
+    }
+}
@@ -60,23 +60,29 @@ public class AsynchInvoke implements Runnable
      */
     public void run()
     {
-        // do the actual invocation
-        _req.doInvocation();
-
-        // for the asynchronous case, note that the response has been
-        // received.
-        synchronized (_req)
+        try
         {
-            // update local boolean indicator
-            _req.gotResponse = true;
-
-            // notify any client waiting on a 'get_response'
-            _req.notify();
+            // do the actual invocation
+            _req.doInvocation();
         }
-
-        if (_notifyORB == true)
+        finally
         {
-            _orb.notifyORB();
+            // for the asynchronous case, note that the response has been
+            // received, even if the invocation failed with a system exception,
+            // which is then available from the request's environment.
+            synchronized (_req)
+            {
+                // update local boolean indicator
+                _req.gotResponse = true;
+
+                // notify any client waiting on a 'get_response'
+                _req.notifyAll();
+            }
+
+            if (_notifyORB == true)
+            {
+                _orb.notifyORB();
+            }
         }
     }
 
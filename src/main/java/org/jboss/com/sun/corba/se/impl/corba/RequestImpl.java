@@ -31,9 +31,20 @@
 
 package org.jboss.com.sun.corba.se.impl.corba;
 
+import java.security.AccessController;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
 import org.jboss.com.sun.corba.se.impl.logging.ORBUtilSystemException;
+import org.jboss.com.sun.corba.se.impl.orbutil.GetPropertyAction;
+import org.jboss.com.sun.corba.se.impl.orbutil.ORBConstants;
 import org.jboss.com.sun.corba.se.spi.logging.CORBALogDomains;
 import org.jboss.com.sun.corba.se.spi.orb.ORB;
+import org.jboss.com.sun.corba.se.spi.orbutil.threadpool.NoSuchThreadPoolException;
+import org.jboss.com.sun.corba.se.spi.orbutil.threadpool.ThreadPool;
+import org.jboss.com.sun.corba.se.spi.orbutil.threadpool.ThreadPoolManager;
+import org.jboss.com.sun.corba.se.spi.orbutil.threadpool.Work;
+import org.jboss.com.sun.corba.se.spi.orbutil.threadpool.WorkQueue;
 import org.jboss.com.sun.corba.se.spi.presentation.rmi.StubAdapter;
 import org.omg.CORBA.ARG_IN;
 import org.omg.CORBA.ARG_INOUT;
@@ -233,7 +244,91 @@ public class RequestImpl extends Request
     public synchronized void send_deferred()
     {
         AsynchInvoke invokeObject = new AsynchInvoke(_orb, this, false);
-        new Thread(invokeObject).start();
+        dispatchDeferred(invokeObject);
+    }
+
+    /**
+     * Sends the request like send_deferred, and returns a Future for the result value. The Future completes when the
+     * response has been received, so a client can issue many deferred requests and then collect their results without
+     * polling each request. A system exception raised by the invocation is reported as the cause of the
+     * ExecutionException thrown by Future.get. poll_response and get_response work as for send_deferred.
+     */
+    public synchronized Future<Any> sendDeferred()
+    {
+        AsynchInvoke invokeObject = new AsynchInvoke(_orb, this, false);
+        FutureTask<Any> future = new FutureTask<Any>(invokeObject, (_result == null) ? null : _result.value());
+        dispatchDeferred(future);
+        return future;
+    }
+
+    // Name of the thread pool for deferred requests, or null if none is configured.
+    private static final String deferredRequestThreadPoolName = AccessController
+            .doPrivileged(new GetPropertyAction(ORBConstants.DEFERRED_REQUEST_THREADPOOL_PROPERTY));
+
+    // Returns the thread pool configured for deferred requests, or null if there is none. The default thread pool is
+    // never used, since deferred requests wait there for replies that need its threads to be read.
+    private static ThreadPool getDeferredRequestThreadPool(ThreadPoolManager tpm)
+    {
+        if (deferredRequestThreadPoolName == null)
+            return null;
+
+        try
+        {
+            return tpm.getThreadPool(deferredRequestThreadPoolName);
+        }
+        catch (NoSuchThreadPoolException e)
+        {
+            return null;
+        }
+    }
+
+    // Runs a deferred invocation on the thread pool named by ORBConstants.DEFERRED_REQUEST_THREADPOOL_PROPERTY. If
+    // that pool is not configured, a new thread is started for the request.
+    private void dispatchDeferred(final Runnable invocation)
+    {
+        WorkQueue queue = null;
+        try
+        {
+            ThreadPoolManager tpm = _orb.getThreadPoolManager();
+            ThreadPool pool = (tpm == null) ? null : getDeferredRequestThreadPool(tpm);
+            if (pool != null)
+                queue = pool.getAnyWorkQueue();
+        }
+        catch (RuntimeException e)
+        {
+            // no usable thread pool; fall through to start a thread
+        }
+
+        if (queue == null)
+        {
+            new Thread(invocation).start();
+            return;
+        }
+
+        queue.addWork(new Work()
+        {
+            private long enqueueTime;
+
+            public void doWork()
+            {
+                invocation.run();
+            }
+
+            public void setEnqueueTime(long timeInMillis)
+            {
+                enqueueTime = timeInMillis;
+            }
+
+            public long getEnqueueTime()
+            {
+                return enqueueTime;
+            }
+
+            public String getName()
+            {
+                return "DeferredInvocation";
+            }
+        });
     }
 
     public synchronized boolean poll_response()
@@ -24,6 +24,7 @@
  */
 package org.jboss.com.sun.corba.se.impl.encoding;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 import org.jboss.com.sun.corba.se.impl.orbutil.ORBUtility;
@@ -34,6 +35,8 @@ import org.jboss.com.sun.corba.se.pept.encoding.OutputObject;
 import org.jboss.com.sun.corba.se.pept.transport.ByteBufferPool;
 import org.jboss.com.sun.corba.se.pept.transport.Connection;
 import org.jboss.com.sun.corba.se.spi.orb.ORB;
+import org.jboss.com.sun.corba.se.spi.transport.CorbaGatheringConnection;
+import org.omg.CORBA.COMM_FAILURE;
 
 /**
  * Collect buffer manager.
@@ -97,10 +100,16 @@ public class BufferManagerWriteCollect extends BufferManagerWrite
         // Enqueue the last fragment
         queue.enqueue(((CDROutputObject) outputObject).getByteBufferWithInfo());
 
-        Iterator<ByteBufferWithInfo> bufs = iterator();
-
         Connection conn = ((OutputObject) outputObject).getMessageMediator().getConnection();
 
+        if (conn instanceof CorbaGatheringConnection)
+        {
+            sendMessageGathering((CorbaGatheringConnection) conn);
+            return;
+        }
+
+        Iterator<ByteBufferWithInfo> bufs = iterator();
+
         // With the collect strategy, we must lock the connection while fragments are being sent. This is so that there
         // are no interleved fragments in GIOP 1.1.
         //
@@ -124,21 +133,7 @@ public class BufferManagerWriteCollect extends BufferManagerWrite
 
                 sentFragment = true;
 
-                // Release ByteBufferWithInfo's ByteBuffer back to the pool
-                // of ByteBuffers.
-                if (debug)
-                {
-                    // print address of ByteBuffer being released
-                    int bbAddress = System.identityHashCode(bbwi.byteBuffer);
-                    StringBuffer sb = new StringBuffer(80);
-                    sb.append("sendMessage() - releasing ByteBuffer id (");
-                    sb.append(bbAddress).append(") to ByteBufferPool.");
-                    String msg = sb.toString();
-                    dprint(msg);
-                }
-                byteBufferPool.releaseByteBuffer(bbwi.byteBuffer);
-                bbwi.byteBuffer = null;
-                bbwi = null;
+                releaseByteBuffer(byteBufferPool, bbwi, "sendMessage()");
             }
 
             sentFullMessage = true;
@@ -151,6 +146,62 @@ public class BufferManagerWriteCollect extends BufferManagerWrite
         }
     }
 
+    // Send all fragments with one gathering write, and release their ByteBuffers to the pool only after the write lock
+    // has been released.
+    private void sendMessageGathering(CorbaGatheringConnection conn)
+    {
+        ByteBufferWithInfo[] fragments = new ByteBufferWithInfo[queue.size()];
+        for (int i = 0; i < fragments.length; i++)
+            fragments[i] = queue.dequeue();
+
+        // The last fragment stays the current buffer of the output object, as with the other send path.
+        ((CDROutputObject) outputObject).setByteBufferWithInfo(fragments[fragments.length - 1]);
+
+        // We must still lock the connection so that there are no interleaved fragments in GIOP 1.1.
+        conn.writeLock();
+
+        try
+        {
+            ((CDROutputObject) outputObject).writeTo(conn, fragments);
+
+            sentFragment = true;
+            sentFullMessage = true;
+        }
+        catch (IOException e)
+        {
+            // As in sendWithoutLock.
+            COMM_FAILURE exc = wrapper.writeErrorSend(e);
+            conn.purgeCalls(exc, false, true);
+            throw exc;
+        }
+        finally
+        {
+            conn.writeUnlock();
+
+            ByteBufferPool byteBufferPool = orb.getByteBufferPool();
+            for (int i = 0; i < fragments.length; i++)
+                releaseByteBuffer(byteBufferPool, fragments[i], "sendMessage()");
+        }
+    }
+
+    private void releaseByteBuffer(ByteBufferPool byteBufferPool, ByteBufferWithInfo bbwi, String caller)
+    {
+        // Release ByteBufferWithInfo's ByteBuffer back to the pool
+        // of ByteBuffers.
+        if (debug)
+        {
+            // print address of ByteBuffer being released
+            int bbAddress = System.identityHashCode(bbwi.byteBuffer);
+            StringBuffer sb = new StringBuffer(80);
+            sb.append(caller).append(" - releasing ByteBuffer id (");
+            sb.append(bbAddress).append(") to ByteBufferPool.");
+            String msg = sb.toString();
+            dprint(msg);
+        }
+        byteBufferPool.releaseByteBuffer(bbwi.byteBuffer);
+        bbwi.byteBuffer = null;
+    }
+
     /**
      * Close the BufferManagerWrite - do any outstanding cleanup.
      * 
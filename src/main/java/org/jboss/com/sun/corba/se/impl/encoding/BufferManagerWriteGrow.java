@@ -25,12 +25,50 @@
 
 package org.jboss.com.sun.corba.se.impl.encoding;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.jboss.com.sun.corba.se.pept.encoding.OutputObject;
 import org.jboss.com.sun.corba.se.pept.transport.Connection;
 import org.jboss.com.sun.corba.se.spi.orb.ORB;
 
 public class BufferManagerWriteGrow extends BufferManagerWrite
 {
+    // Largest size a grown message buffer is sized for up front.
+    private static final int MAX_SIZE_HINT = 8 * 1024 * 1024;
+
+    // A grown buffer is never sized by the hint for more than this many times what it needs.
+    private static final int MAX_HINT_FACTOR = 4;
+
+    // The size hints of each ORB.
+    private static final Map<ORB, SizeHint> sizeHints = new WeakHashMap<ORB, SizeHint>();
+
+    /**
+     * The size of the last GIOP messages of an ORB that outgrew their first buffer. A message that overflows is likely
+     * to be as large as the previous large ones, so its buffer is grown towards this size by up to MAX_HINT_FACTOR
+     * times what it needs, instead of being doubled, and copied, once per size in between. A smaller grown message
+     * halves the hint, so it decays after a burst of large ones. Races on the hint only cost a less accurate hint.
+     */
+    private static final class SizeHint
+    {
+        private volatile int size;
+
+        int get(int needed)
+        {
+            long limit = (long) needed * MAX_HINT_FACTOR;
+            return (int) Math.min(size, limit);
+        }
+
+        void record(int messageSize)
+        {
+            // Rounded up so that a message of the same size fits.
+            int newSize = Math.min((messageSize + 1024) & ~1023, MAX_SIZE_HINT);
+            size = Math.max(newSize, size / 2);
+        }
+    }
+
+    private SizeHint sizeHint;
+
     BufferManagerWriteGrow(ORB orb)
     {
         super(orb);
@@ -53,8 +91,12 @@ public class BufferManagerWriteGrow extends BufferManagerWrite
     {
         // The code that once lived directly in CDROutputStream.grow() has been moved ByteBufferWithInfo.growBuffer().
 
-        // Grow ByteBufferWithInfo to a larger size.
-        bbwi.growBuffer(orb);
+        // Grow ByteBufferWithInfo to a larger size. Only GIOP messages have an output object; encapsulations grow by
+        // doubling, and do not use the hint of the messages.
+        if (outputObject == null)
+            bbwi.growBuffer(orb);
+        else
+            bbwi.growBuffer(orb, getSizeHint().get(bbwi.position() + bbwi.needed));
 
         // Must be false for the grow case
         bbwi.fragmented = false;
@@ -62,6 +104,9 @@ public class BufferManagerWriteGrow extends BufferManagerWrite
 
     public void sendMessage()
     {
+        // Recorded before the send, which may release the buffer.
+        recordSize(((CDROutputObject) outputObject).getByteBufferWithInfo());
+
         Connection conn = ((OutputObject) outputObject).getMessageMediator().getConnection();
         conn.writeLock();
 
@@ -76,6 +121,31 @@ public class BufferManagerWriteGrow extends BufferManagerWrite
         }
     }
 
+    private void recordSize(ByteBufferWithInfo bbwi)
+    {
+        if (bbwi == null || bbwi.buflen <= getBufferSize())
+            return;
+
+        getSizeHint().record(bbwi.getSize());
+    }
+
+    private SizeHint getSizeHint()
+    {
+        if (sizeHint == null)
+        {
+            synchronized (sizeHints)
+            {
+                sizeHint = sizeHints.get(orb);
+                if (sizeHint == null)
+                {
+                    sizeHint = new SizeHint();
+                    sizeHints.put(orb, sizeHint);
+                }
+            }
+        }
+        return sizeHint;
+    }
+
     /**
      * Close the BufferManagerWrite and do any outstanding cleanup.
      * 
@@ -172,11 +172,20 @@ public class ByteBufferWithInfo
 
     // Grow byteBuffer to a size larger than position() + needed
     public void growBuffer(ORB orb)
+    {
+        growBuffer(orb, 0);
+    }
+
+    /**
+     * Grows the buffer to at least sizeHint bytes, if that is more than twice its current size. Every grow copies all
+     * the bytes written so far, so a caller that expects a large message can skip the intermediate sizes.
+     */
+    public void growBuffer(ORB orb, int sizeHint)
     {
         // This code used to live directly in CDROutputStream.grow.
 
         // Recall that the byteBuffer size is 'really' the limit or buflen.
-        int newLength = byteBuffer.limit() * 2;
+        int newLength = Math.max(byteBuffer.limit() * 2, sizeHint);
 
         while (position() + needed >= newLength)
             newLength = newLength * 2;
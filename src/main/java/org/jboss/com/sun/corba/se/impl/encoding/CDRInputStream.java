@@ -526,6 +526,11 @@ public abstract class CDRInputStream extends org.omg.CORBA_2_3.portable.InputStr
         return impl.getBufferManager();
     }
 
+    public final int getIndirectionCount()
+    {
+        return impl.getIndirectionCount();
+    }
+
     // This should be overridden by any stream (ex: IIOPInputStream) which wants to read values. Thus,
     // TypeCodeInputStream doesn't have to do this.
     public CodeBase getCodeBase()
@@ -244,6 +244,9 @@ abstract class CDRInputStreamBase extends java.io.InputStream
 
     public abstract GIOPVersion getGIOPVersion();
 
+    // Number of value, repository ID and codebase indirections resolved so far on this stream.
+    public abstract int getIndirectionCount();
+
     abstract CodeBase getCodeBase();
 
     abstract void printBuffer();
@@ -39,6 +39,8 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -51,7 +53,7 @@ import org.jboss.com.sun.corba.se.impl.corba.PrincipalImpl;
 import org.jboss.com.sun.corba.se.impl.corba.TypeCodeImpl;
 import org.jboss.com.sun.corba.se.impl.logging.OMGSystemException;
 import org.jboss.com.sun.corba.se.impl.logging.ORBUtilSystemException;
-import org.jboss.com.sun.corba.se.impl.orbutil.CacheTable;
+import org.jboss.com.sun.corba.se.impl.orbutil.IntObjectMap;
 import org.jboss.com.sun.corba.se.impl.orbutil.ORBUtility;
 import org.jboss.com.sun.corba.se.impl.orbutil.RepositoryIdFactory;
 import org.jboss.com.sun.corba.se.impl.orbutil.RepositoryIdInterface;
@@ -97,6 +99,12 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     private static final int maxBlockLength = 0x7fffff00;
 
+    // Primitive arrays with at least this many elements are decoded in runs through a typed view of the buffer
+    // instead of one read_XXX call per element.
+    private static final int BULK_READ_THRESHOLD = 8;
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
     protected BufferManagerRead bufferManagerRead;
 
     protected ByteBufferWithInfo bbwi;
@@ -115,14 +123,17 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     protected ValueHandler valueHandler = null;
 
-    // Value cache
-    private CacheTable valueCache = null;
+    // Value cache, keyed by stream offset
+    private IntObjectMap valueCache = null;
 
-    // Repository ID cache
-    private CacheTable repositoryIdCache = null;
+    // Repository ID cache, keyed by stream offset
+    private IntObjectMap repositoryIdCache = null;
 
-    // codebase cache
-    private CacheTable codebaseCache = null;
+    // codebase cache, keyed by stream offset
+    private IntObjectMap codebaseCache = null;
+
+    // Number of indirections resolved through the caches above
+    private int indirectionCount = 0;
 
     // Current Class Stack (repository Ids of current class being read) private Stack currentStack = null;
 
@@ -232,6 +243,11 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         return GIOPVersion.V1_0;
     }
 
+    public int getIndirectionCount()
+    {
+        return indirectionCount;
+    }
+
     // Called by Request and Reply message. Valid for GIOP versions >= 1.2 only. Illegal for GIOP versions < 1.2.
     void setHeaderPadding(boolean headerPadding)
     {
@@ -510,6 +526,11 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
     }
 
     protected final String readStringOrIndirection(boolean allowIndirection)
+    {
+        return readStringOrIndirection(allowIndirection, false);
+    }
+
+    private final String readStringOrIndirection(boolean allowIndirection, boolean isRepositoryId)
     {
 
         int len = read_long();
@@ -527,10 +548,37 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
         if (orb != null && ORBUtility.isLegacyORB(orb))
             return legacyReadString(len);
+        else if (isRepositoryId)
+            return internalReadRepositoryId(len);
         else
             return internalReadString(len);
     }
 
+    // Reads a repository ID, taking the canonical String from RepositoryIdTable when its bytes are already there.
+    private final String internalReadRepositoryId(int len)
+    {
+        int numBytes = len - 1;
+        if (numBytes <= 0 || bbwi.buflen - bbwi.position() < numBytes || !getCharConverter().isASCIICompatible())
+            return internalReadString(len);
+
+        int pos = bbwi.position();
+        String result = RepositoryIdTable.get(bbwi.byteBuffer, pos, numBytes);
+        if (result != null)
+        {
+            bbwi.position(pos + numBytes);
+        }
+        else
+        {
+            result = getConvertedString(numBytes, getCharConverter());
+            RepositoryIdTable.put(bbwi.byteBuffer, pos, numBytes, result);
+        }
+
+        // Skip over the 1 byte null
+        read_octet();
+
+        return result;
+    }
+
     private final String internalReadString(int len)
     {
         // Workaround for ORBs which send string lengths of zero to mean empty string.
@@ -540,12 +588,12 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         if (len == 0)
             return new String("");
 
-        char[] result = getConvertedChars(len - 1, getCharConverter());
+        String result = getConvertedString(len - 1, getCharConverter());
 
         // Skip over the 1 byte null
         read_octet();
 
-        return new String(result, 0, getCharConverter().getNumChars());
+        return result;
     }
 
     private final String legacyReadString(int len)
@@ -559,7 +607,7 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
             return new String("");
 
         len--;
-        char[] c = new char[len];
+        byte[] b = new byte[len];
 
         int n = 0;
         while (n < len)
@@ -576,13 +624,7 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
             }
             wanted = len - n;
             bytes = (wanted < avail) ? wanted : avail;
-            // Microbenchmarks are showing a loop of ByteBuffer.get(int) being faster than ByteBuffer.get(byte[], int,
-            // int).
-            for (int i = 0; i < bytes; i++)
-            {
-                c[n + i] = (char) (bbwi.byteBuffer.get(bbwi.position() + i) & 0xFF);
-            }
-            bbwi.position(bbwi.position() + bytes);
+            bulkGet(b, n, bytes);
             n += bytes;
         }
 
@@ -591,7 +633,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
             alignAndCheck(1, 1);
         bbwi.position(bbwi.position() + 1);
 
-        return new String(c);
+        // Legacy ORBs send one octet per char, which is exactly ISO 8859-1.
+        return new String(b, 0, len, ISO_8859_1);
     }
 
     public final String read_string()
@@ -659,19 +702,22 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
             }
             wanted = (length + offset) - n;
             bytes = (wanted < avail) ? wanted : avail;
-            // Microbenchmarks are showing a loop of ByteBuffer.get(int) being faster than ByteBuffer.get(byte[], int,
-            // int).
-            for (int i = 0; i < bytes; i++)
-            {
-                b[n + i] = bbwi.byteBuffer.get(bbwi.position() + i);
-            }
-
-            bbwi.position(bbwi.position() + bytes);
-
+            bulkGet(b, n, bytes);
             n += bytes;
         }
     }
 
+    // Copies the next length bytes of the current fragment into b with a single ByteBuffer.get(byte[], int, int), which
+    // is a plain memory copy for both heap and direct buffers, and advances the stream past them. The caller must have
+    // made sure that the bytes are available in the current fragment.
+    private final void bulkGet(byte[] b, int offset, int length)
+    {
+        ByteBuffer bb = bbwi.byteBuffer;
+        bb.position(bbwi.position());
+        bb.get(b, offset, length);
+        bbwi.position(bbwi.position() + length);
+    }
+
     public Principal read_Principal()
     {
         int len = read_long();
@@ -865,13 +911,36 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         return read_value((Class<?>) null);
     }
 
+    // Return the indirection caches to the pool. Nothing read from this stream can be indirected to afterwards.
+    private void freeInternalCaches()
+    {
+        if (valueCache != null)
+        {
+            IntObjectMap.release(valueCache);
+            valueCache = null;
+        }
+
+        if (repositoryIdCache != null)
+        {
+            IntObjectMap.release(repositoryIdCache);
+            repositoryIdCache = null;
+        }
+
+        if (codebaseCache != null)
+        {
+            IntObjectMap.release(codebaseCache);
+            codebaseCache = null;
+        }
+    }
+
     private Serializable handleIndirection()
     {
         int indirection = read_long() + get_offset() - 4;
-        if (valueCache != null && valueCache.containsVal(indirection))
+        if (valueCache != null && valueCache.containsKey(indirection))
         {
 
-            java.io.Serializable cachedValue = (java.io.Serializable) valueCache.getKey(indirection);
+            java.io.Serializable cachedValue = (java.io.Serializable) valueCache.get(indirection);
+            indirectionCount++;
             return cachedValue;
         }
         else
@@ -1038,8 +1107,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
         // Cache the valuetype that we read
         if (valueCache == null)
-            valueCache = new CacheTable(orb, false);
-        valueCache.put(value, indirection);
+            valueCache = IntObjectMap.acquire();
+        valueCache.put(indirection, value);
 
         // Allow for possible continuation chunk. If we're a nested valuetype inside of a chunked valuetype, and that
         // enclosing valuetype has more data to write, it will need to have this new chunk begin after we wrote our end
@@ -1061,9 +1130,10 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         else if (vType == 0xffffffff)
         { // Indirection tag
             int indirection = read_long() + get_offset() - 4;
-            if (valueCache != null && valueCache.containsVal(indirection))
+            if (valueCache != null && valueCache.containsKey(indirection))
             {
-                java.io.Serializable cachedValue = (java.io.Serializable) valueCache.getKey(indirection);
+                java.io.Serializable cachedValue = (java.io.Serializable) valueCache.get(indirection);
+                indirectionCount++;
                 return cachedValue;
             }
             else
@@ -1115,8 +1185,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
             // Put into valueCache
             if (valueCache == null)
-                valueCache = new CacheTable(orb, false);
-            valueCache.put(value, indirection);
+                valueCache = IntObjectMap.acquire();
+            valueCache.put(indirection, value);
 
             // allow for possible continuation chunk
             isChunked = saveIsChunked;
@@ -1152,8 +1222,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
         // Put into valueCache using valueIndirection
         if (valueCache == null)
-            valueCache = new CacheTable(orb, false);
-        valueCache.put(value, valueIndirection);
+            valueCache = IntObjectMap.acquire();
+        valueCache.put(valueIndirection, value);
 
         if (value instanceof StreamableValue)
             ((StreamableValue) value)._read(parent);
@@ -1177,9 +1247,10 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         else if (vType == 0xffffffff)
         { // Indirection tag
             int indirection = read_long() + get_offset() - 4;
-            if (valueCache != null && valueCache.containsVal(indirection))
+            if (valueCache != null && valueCache.containsKey(indirection))
             {
-                java.io.Serializable cachedValue = (java.io.Serializable) valueCache.getKey(indirection);
+                java.io.Serializable cachedValue = (java.io.Serializable) valueCache.get(indirection);
+                indirectionCount++;
                 return cachedValue;
             }
             else
@@ -1222,8 +1293,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
             // Put into valueCache
             if (valueCache == null)
-                valueCache = new CacheTable(orb, false);
-            valueCache.put(value, indirection);
+                valueCache = IntObjectMap.acquire();
+            valueCache.put(indirection, value);
 
             // allow for possible continuation chunk
             isChunked = saveIsChunked;
@@ -1314,8 +1385,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
         // add blank instance to cache table
         if (valueCache == null)
-            valueCache = new CacheTable(orb, false);
-        valueCache.put(val, indirection);
+            valueCache = IntObjectMap.acquire();
+        valueCache.put(indirection, val);
 
         // if custom type, call unmarshal method
         if (val instanceof CustomMarshal && isCustomType(helper))
@@ -1660,11 +1731,54 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         }
     }
 
+    // Aligns the stream on the next element of a primitive array and returns how many of the remaining elements can be
+    // copied in one run, that is without crossing the end of the current fragment or chunk. Arrays of primitives may
+    // not be split across chunks, but the check is made per run to preserve the element by element semantics of
+    // checkBlockLength. The result is always at least 1 since alignAndCheck grows the buffer as needed.
+    private final int alignForBulkRead(int elementSize, int remaining)
+    {
+        alignAndCheck(elementSize, elementSize);
+
+        int count = (bbwi.buflen - bbwi.position()) / elementSize;
+
+        if (isChunked && blockLength != maxBlockLength)
+        {
+            int inBlock = (blockLength - get_offset()) / elementSize;
+            if (inBlock < count)
+                count = inBlock;
+        }
+
+        return (count < remaining) ? count : remaining;
+    }
+
+    // Returns a view of the unread part of the current fragment in the byte order of this stream. The view shares
+    // content with bbwi.byteBuffer but has its own position and byte order, so the caller must advance bbwi itself.
+    private final ByteBuffer bulkReadView()
+    {
+        ByteBuffer view = bbwi.byteBuffer.duplicate();
+        view.position(bbwi.position());
+        return view.order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
+
     public final void read_short_array(short[] value, int offset, int length)
     {
-        for (int i = 0; i < length; i++)
+        if (length < BULK_READ_THRESHOLD)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                value[i + offset] = read_short();
+            }
+            return;
+        }
+
+        int n = offset;
+        int end = offset + length;
+        while (n < end)
         {
-            value[i + offset] = read_short();
+            int count = alignForBulkRead(2, end - n);
+            bulkReadView().asShortBuffer().get(value, n, count);
+            bbwi.position(bbwi.position() + count * 2);
+            n += count;
         }
     }
 
@@ -1675,9 +1789,23 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     public final void read_long_array(int[] value, int offset, int length)
     {
-        for (int i = 0; i < length; i++)
+        if (length < BULK_READ_THRESHOLD)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                value[i + offset] = read_long();
+            }
+            return;
+        }
+
+        int n = offset;
+        int end = offset + length;
+        while (n < end)
         {
-            value[i + offset] = read_long();
+            int count = alignForBulkRead(4, end - n);
+            bulkReadView().asIntBuffer().get(value, n, count);
+            bbwi.position(bbwi.position() + count * 4);
+            n += count;
         }
     }
 
@@ -1688,9 +1816,23 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     public final void read_longlong_array(long[] value, int offset, int length)
     {
-        for (int i = 0; i < length; i++)
+        if (length < BULK_READ_THRESHOLD)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                value[i + offset] = read_longlong();
+            }
+            return;
+        }
+
+        int n = offset;
+        int end = offset + length;
+        while (n < end)
         {
-            value[i + offset] = read_longlong();
+            int count = alignForBulkRead(8, end - n);
+            bulkReadView().asLongBuffer().get(value, n, count);
+            bbwi.position(bbwi.position() + count * 8);
+            n += count;
         }
     }
 
@@ -1701,17 +1843,45 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     public final void read_float_array(float[] value, int offset, int length)
     {
-        for (int i = 0; i < length; i++)
+        if (length < BULK_READ_THRESHOLD)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                value[i + offset] = read_float();
+            }
+            return;
+        }
+
+        int n = offset;
+        int end = offset + length;
+        while (n < end)
         {
-            value[i + offset] = read_float();
+            int count = alignForBulkRead(4, end - n);
+            bulkReadView().asFloatBuffer().get(value, n, count);
+            bbwi.position(bbwi.position() + count * 4);
+            n += count;
         }
     }
 
     public final void read_double_array(double[] value, int offset, int length)
     {
-        for (int i = 0; i < length; i++)
+        if (length < BULK_READ_THRESHOLD)
         {
-            value[i + offset] = read_double();
+            for (int i = 0; i < length; i++)
+            {
+                value[i + offset] = read_double();
+            }
+            return;
+        }
+
+        int n = offset;
+        int end = offset + length;
+        while (n < end)
+        {
+            int count = alignForBulkRead(8, end - n);
+            bulkReadView().asDoubleBuffer().get(value, n, count);
+            bbwi.position(bbwi.position() + count * 8);
+            n += count;
         }
     }
 
@@ -1746,8 +1916,11 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         if (numRepIds == 0xffffffff)
         {
             int indirection = read_long() + get_offset() - 4;
-            if (repositoryIdCache != null && repositoryIdCache.containsOrderedVal(indirection))
-                return (String) repositoryIdCache.getKey(indirection);
+            if (repositoryIdCache != null && repositoryIdCache.containsKey(indirection))
+            {
+                indirectionCount++;
+                return (String) repositoryIdCache.get(indirection);
+            }
             else
                 throw wrapper.unableToLocateRepIdArray(new Integer(indirection));
         }
@@ -1758,8 +1931,8 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
             int indirection = get_offset();
             String repID = read_repositoryId();
             if (repositoryIdCache == null)
-                repositoryIdCache = new CacheTable(orb, false);
-            repositoryIdCache.put(repID, indirection);
+                repositoryIdCache = IntObjectMap.acquire();
+            repositoryIdCache.put(indirection, repID);
 
             // read and ignore the subsequent array elements, but put them in the indirection table in case there are
             // later indirections back to them
@@ -1774,22 +1947,25 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     private final String read_repositoryId()
     {
-        String result = readStringOrIndirection(true);
+        String result = readStringOrIndirection(true, true);
 
         if (result == null)
         { // Indirection
             int indirection = read_long() + get_offset() - 4;
 
-            if (repositoryIdCache != null && repositoryIdCache.containsOrderedVal(indirection))
-                return (String) repositoryIdCache.getKey(indirection);
+            if (repositoryIdCache != null && repositoryIdCache.containsKey(indirection))
+            {
+                indirectionCount++;
+                return (String) repositoryIdCache.get(indirection);
+            }
             else
                 throw wrapper.badRepIdIndirection(CompletionStatus.COMPLETED_MAYBE, new Integer(bbwi.position()));
         }
         else
         {
             if (repositoryIdCache == null)
-                repositoryIdCache = new CacheTable(orb, false);
-            repositoryIdCache.put(result, stringIndirection);
+                repositoryIdCache = IntObjectMap.acquire();
+            repositoryIdCache.put(stringIndirection, result);
         }
 
         return result;
@@ -1803,16 +1979,19 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         { // Indirection
             int indirection = read_long() + get_offset() - 4;
 
-            if (codebaseCache != null && codebaseCache.containsVal(indirection))
-                return (String) codebaseCache.getKey(indirection);
+            if (codebaseCache != null && codebaseCache.containsKey(indirection))
+            {
+                indirectionCount++;
+                return (String) codebaseCache.get(indirection);
+            }
             else
                 throw wrapper.badCodebaseIndirection(CompletionStatus.COMPLETED_MAYBE, new Integer(bbwi.position()));
         }
         else
         {
             if (codebaseCache == null)
-                codebaseCache = new CacheTable(orb, false);
-            codebaseCache.put(result, stringIndirection);
+                codebaseCache = IntObjectMap.acquire();
+            codebaseCache.put(stringIndirection, result);
         }
 
         return result;
@@ -2274,20 +2453,15 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         {
             // If the entire string is in this buffer, just convert directly from the bbwi rather than allocating and
             // copying.
-            byte[] tmpBuf;
-            if (bbwi.byteBuffer.hasArray())
-            {
-                tmpBuf = bbwi.byteBuffer.array();
-            }
-            else
+            if (!bbwi.byteBuffer.hasArray())
             {
-                tmpBuf = new byte[bbwi.buflen];
-                // Microbenchmarks are showing a loop of ByteBuffer.get(int) being faster than ByteBuffer.get(byte[],
-                // int, int).
-                for (int i = 0; i < bbwi.buflen; i++)
-                    tmpBuf[i] = bbwi.byteBuffer.get(i);
+                // Only copy out the bytes of this string, not the whole buffer.
+                byte[] bytes = new byte[numBytes];
+                bulkGet(bytes, 0, numBytes);
+                return converter.getChars(bytes, 0, numBytes);
             }
-            char[] result = converter.getChars(tmpBuf, bbwi.position(), numBytes);
+
+            char[] result = converter.getChars(bbwi.byteBuffer.array(), bbwi.position(), numBytes);
 
             bbwi.position(bbwi.position() + numBytes);
             return result;
@@ -2303,6 +2477,34 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
         }
     }
 
+    // Utility method used to get a String from bytes. Unlike getConvertedChars, this never copies more than numBytes
+    // bytes and lets the converter build the String without an intermediate char array where it can.
+    String getConvertedString(int numBytes, CodeSetConversion.BTCConverter converter)
+    {
+        byte[] bytes;
+        if (bbwi.buflen - bbwi.position() >= numBytes)
+        {
+            if (bbwi.byteBuffer.hasArray())
+            {
+                // Convert straight from the backing array.
+                String result = converter.getString(bbwi.byteBuffer.array(), bbwi.position(), numBytes);
+                bbwi.position(bbwi.position() + numBytes);
+                return result;
+            }
+
+            bytes = new byte[numBytes];
+            bulkGet(bytes, 0, numBytes);
+        }
+        else
+        {
+            // Stretches across buffers.
+            bytes = new byte[numBytes];
+            read_octet_array(bytes, 0, numBytes);
+        }
+
+        return converter.getString(bytes, 0, numBytes);
+    }
+
     protected CodeSetConversion.BTCConverter getCharConverter()
     {
         if (charConverter == null)
@@ -2417,6 +2619,7 @@ public class CDRInputStream_1_0 extends CDRInputStreamBase implements Restorable
 
     public void close() throws IOException
     {
+        freeInternalCaches();
 
         // tell BufferManagerRead to release any ByteBuffers
         getBufferManager().close(bbwi);
@@ -36,6 +36,7 @@ import org.jboss.com.sun.corba.se.spi.logging.CORBALogDomains;
 import org.jboss.com.sun.corba.se.spi.orb.ORB;
 import org.jboss.com.sun.corba.se.spi.protocol.CorbaMessageMediator;
 import org.jboss.com.sun.corba.se.spi.transport.CorbaConnection;
+import org.jboss.com.sun.corba.se.spi.transport.CorbaGatheringConnection;
 
 /**
  * @author Harold Carr
@@ -142,6 +143,35 @@ public class CDROutputObject extends CorbaOutputObject
         connection.write(bbwi.byteBuffer);
     }
 
+    /**
+     * Writes the given fragments of this message to the connection with one gathering write. Like writeTo, this updates
+     * the GIOP MessageHeader size field of each fragment first.
+     */
+    public void writeTo(CorbaGatheringConnection connection, ByteBufferWithInfo[] fragments) throws java.io.IOException
+    {
+        java.nio.ByteBuffer[] buffers = new java.nio.ByteBuffer[fragments.length];
+
+        for (int i = 0; i < fragments.length; i++)
+        {
+            ByteBufferWithInfo bbwi = fragments[i];
+
+            getMessageHeader().setSize(bbwi.byteBuffer, bbwi.getSize());
+
+            if (orb() != null && ((ORB) orb()).giopDebugFlag)
+            {
+                CDROutputStream_1_0.printBuffer(bbwi);
+            }
+            bbwi.byteBuffer.position(0).limit(bbwi.getSize());
+            buffers[i] = bbwi.byteBuffer;
+        }
+
+        if (orb() != null && ((ORB) orb()).transportDebugFlag)
+        {
+            dprint(".writeTo: " + connection + " (" + fragments.length + " fragments)");
+        }
+        connection.write(buffers);
+    }
+
     /** overrides create_input_stream from CDROutputStream */
     public org.omg.CORBA.portable.InputStream create_input_stream()
     {
@@ -448,6 +448,11 @@ public abstract class CDROutputStream extends org.omg.CORBA_2_3.portable.OutputS
         return impl.getBufferManager();
     }
 
+    public final int getIndirectionCount()
+    {
+        return impl.getIndirectionCount();
+    }
+
     public final void write_fixed(java.math.BigDecimal bigDecimal, short digits, short scale)
     {
         impl.write_fixed(bigDecimal, digits, scale);
@@ -198,6 +198,9 @@ abstract class CDROutputStreamBase extends java.io.OutputStream
 
     public abstract GIOPVersion getGIOPVersion();
 
+    // Number of value, repository ID and codebase indirections written so far on this stream.
+    public abstract int getIndirectionCount();
+
     public abstract void writeIndirection(int tag, int posIndirectedTo);
 
     abstract void freeInternalCaches();
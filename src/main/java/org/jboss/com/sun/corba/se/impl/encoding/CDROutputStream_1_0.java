@@ -46,7 +46,7 @@ import javax.rmi.CORBA.ValueHandlerMultiFormat;
 
 import org.jboss.com.sun.corba.se.impl.corba.TypeCodeImpl;
 import org.jboss.com.sun.corba.se.impl.logging.ORBUtilSystemException;
-import org.jboss.com.sun.corba.se.impl.orbutil.CacheTable;
+import org.jboss.com.sun.corba.se.impl.orbutil.IdentityIntMap;
 import org.jboss.com.sun.corba.se.impl.orbutil.ORBUtility;
 import org.jboss.com.sun.corba.se.impl.orbutil.RepositoryIdFactory;
 import org.jboss.com.sun.corba.se.impl.orbutil.RepositoryIdStrings;
@@ -103,13 +103,16 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
     private static final String kWriteMethod = "write";
 
     // Codebase cache
-    private CacheTable codebaseCache = null;
+    private IdentityIntMap codebaseCache = null;
 
     // Value cache
-    private CacheTable valueCache = null;
+    private IdentityIntMap valueCache = null;
 
     // Repository ID cache
-    private CacheTable repositoryIdCache = null;
+    private IdentityIntMap repositoryIdCache = null;
+
+    // Number of indirections written through the caches above
+    private int indirectionCount = 0;
 
     // Write end flag
     private int end_flag = 0;
@@ -205,6 +208,11 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
         return GIOPVersion.V1_0;
     }
 
+    public int getIndirectionCount()
+    {
+        return indirectionCount;
+    }
+
     // Called by Request and Reply message. Valid for GIOP versions >= 1.2 only. Illegal for GIOP versions < 1.2.
     void setHeaderPadding(boolean headerPadding)
     {
@@ -264,13 +272,22 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
     void freeInternalCaches()
     {
         if (codebaseCache != null)
-            codebaseCache.done();
+        {
+            IdentityIntMap.release(codebaseCache);
+            codebaseCache = null;
+        }
 
         if (valueCache != null)
-            valueCache.done();
+        {
+            IdentityIntMap.release(valueCache);
+            valueCache = null;
+        }
 
         if (repositoryIdCache != null)
-            repositoryIdCache.done();
+        {
+            IdentityIntMap.release(repositoryIdCache);
+            repositoryIdCache = null;
+        }
     }
 
     // No such type in java
@@ -562,8 +579,11 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
             avail = bbwi.buflen - bbwi.position();
             wanted = (length + offset) - n;
             bytes = (wanted < avail) ? wanted : avail;
-            for (int i = 0; i < bytes; i++)
-                bbwi.byteBuffer.put(bbwi.position() + i, value[n + i]);
+            // ByteBuffer.put(byte[], int, int) is a plain memory copy for both heap and direct buffers. The buffer's
+            // own position is not kept in step with bbwi by every caller (see ByteBufferWithInfo.growBuffer), so set it
+            // before the relative put.
+            bbwi.byteBuffer.position(bbwi.position());
+            bbwi.byteBuffer.put(value, n, bytes);
             bbwi.position(bbwi.position() + bytes);
             n += bytes;
         }
@@ -804,7 +824,7 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
         {
             if (valueCache != null && valueCache.containsKey(object))
             {
-                writeIndirection(INDIRECTION_TAG, valueCache.getVal(object));
+                writeCachedIndirection(valueCache.get(object));
                 return;
             }
 
@@ -864,7 +884,7 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
         // Handle shared references
         if (valueCache != null && valueCache.containsKey(object))
         {
-            writeIndirection(INDIRECTION_TAG, valueCache.getVal(object));
+            writeCachedIndirection(valueCache.get(object));
             return;
         }
 
@@ -931,7 +951,7 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
         // Handle shared references
         if ((valueCache != null) && valueCache.containsKey(object))
         {
-            writeIndirection(INDIRECTION_TAG, valueCache.getVal(object));
+            writeCachedIndirection(valueCache.get(object));
             return;
         }
 
@@ -1369,14 +1389,27 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
         bbwi.byteBuffer = byteBuffer;
     }
 
+    private final void putIndirection(IdentityIntMap cache, Object key, int indirection)
+    {
+        int existing = cache.put(key, indirection);
+        if (existing != -1 && existing != indirection)
+            throw wrapper.duplicateIndirectionOffset();
+    }
+
+    private final void writeCachedIndirection(int posIndirectedTo)
+    {
+        indirectionCount++;
+        writeIndirection(INDIRECTION_TAG, posIndirectedTo);
+    }
+
     private final void updateIndirectionTable(int indirection, Object object, Object key)
     {
         // int indirection = get_offset();
         if (valueCache == null)
-            valueCache = new CacheTable(orb, true);
-        valueCache.put(object, indirection);
+            valueCache = IdentityIntMap.acquire();
+        putIndirection(valueCache, object, indirection);
         if (key != object)
-            valueCache.put(key, indirection);
+            putIndirection(valueCache, key, indirection);
     }
 
     private final void write_repositoryId(String id)
@@ -1384,7 +1417,7 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
         // Use an indirection if available
         if (repositoryIdCache != null && repositoryIdCache.containsKey(id))
         {
-            writeIndirection(INDIRECTION_TAG, repositoryIdCache.getVal(id));
+            writeCachedIndirection(repositoryIdCache.get(id));
             return;
         }
 
@@ -1396,22 +1429,22 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
 
         // Add indirection for id to indirection table
         if (repositoryIdCache == null)
-            repositoryIdCache = new CacheTable(orb, true);
-        repositoryIdCache.put(id, indirection);
+            repositoryIdCache = IdentityIntMap.acquire();
+        putIndirection(repositoryIdCache, id, indirection);
     }
 
     private void write_codebase(String str, int pos)
     {
         if (codebaseCache != null && codebaseCache.containsKey(str))
         {
-            writeIndirection(INDIRECTION_TAG, codebaseCache.getVal(str));
+            writeCachedIndirection(codebaseCache.get(str));
         }
         else
         {
             write_string(str);
             if (codebaseCache == null)
-                codebaseCache = new CacheTable(orb, true);
-            codebaseCache.put(str, pos);
+                codebaseCache = IdentityIntMap.acquire();
+            putIndirection(codebaseCache, str, pos);
         }
     }
 
@@ -2027,6 +2060,8 @@ public class CDROutputStream_1_0 extends CDROutputStreamBase
 
     public void close() throws IOException
     {
+        freeInternalCaches();
+
         // tell BufferManagerWrite to release any ByteBuffers
         getBufferManager().close();
 
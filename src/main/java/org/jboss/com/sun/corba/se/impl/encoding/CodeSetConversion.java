@@ -118,6 +118,22 @@ public class CodeSetConversion
         // The same array may be used internally over multiple
         // calls.
         public abstract char[] getChars(byte[] bytes, int offset, int length);
+
+        // Converts length bytes of the given array straight to a String.
+        // Converters for common code sets override this to avoid the
+        // intermediate char array.
+        public String getString(byte[] bytes, int offset, int length)
+        {
+            char[] chars = getChars(bytes, offset, length);
+            return new String(chars, 0, getNumChars());
+        }
+
+        // True if each byte below 0x80 always converts to the char with
+        // the same value.
+        public boolean isASCIICompatible()
+        {
+            return false;
+        }
     }
 
     /**
@@ -359,6 +375,37 @@ public class CodeSetConversion
             return resultingNumChars;
         }
 
+        public String getString(byte[] bytes, int offset, int numBytes)
+        {
+            // ISO 8859-1 maps every byte to the char with the same value,
+            // and so does UTF-8 for the ASCII range. Neither can fail, so
+            // let String decode these directly.
+            if (codeset == OSFCodeSetRegistry.ISO_8859_1
+                    || (codeset == OSFCodeSetRegistry.UTF_8 && isASCII(bytes, offset, numBytes)))
+            {
+                resultingNumChars = numBytes;
+                return new String(bytes, offset, numBytes, ISO_8859_1);
+            }
+
+            // Anything else may need the CharsetDecoder error reporting.
+            return super.getString(bytes, offset, numBytes);
+        }
+
+        public boolean isASCIICompatible()
+        {
+            return codeset == OSFCodeSetRegistry.ISO_8859_1 || codeset == OSFCodeSetRegistry.UTF_8;
+        }
+
+        private boolean isASCII(byte[] bytes, int offset, int numBytes)
+        {
+            for (int i = offset; i < offset + numBytes; i++)
+            {
+                if (bytes[i] < 0)
+                    return false;
+            }
+            return true;
+        }
+
         public char[] getChars(byte[] bytes, int offset, int numBytes)
         {
 
@@ -747,6 +794,10 @@ public class CodeSetConversion
     // set.
     private static final int FALLBACK_CODESET = 0;
 
+    // Used by JavaBTCConverter.getString for the code sets whose bytes
+    // map one to one onto chars.
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
     // Provides a thread local cache for the sun.io
     // converters.
     private CodeSetCache cache = new CodeSetCache();
@@ -1173,6 +1173,12 @@ public class IDLJavaSerializationInputStream extends CDRInputStreamBase
         return GIOPVersion.V1_2;
     }
 
+    // Java serialization resolves back references itself, so no indirections are counted.
+    public int getIndirectionCount()
+    {
+        return 0;
+    }
+
     org.jboss.com.sun.org.omg.SendingContext.CodeBase getCodeBase()
     {
         return parent.getCodeBase();
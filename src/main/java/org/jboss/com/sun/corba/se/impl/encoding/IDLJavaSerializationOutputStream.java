@@ -853,6 +853,12 @@ public class IDLJavaSerializationOutputStream extends CDROutputStreamBase
         return GIOPVersion.V1_2;
     }
 
+    // Java serialization writes back references itself, so no indirections are counted.
+    public final int getIndirectionCount()
+    {
+        return 0;
+    }
+
     public final void writeIndirection(int tag, int posIndirectedTo)
     {
         throw wrapper.giopVersionError();
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.encoding;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A global, bounded table of the repository ID strings read by CDRInputStream_1_0, matched on their encoded bytes
+ * straight from the stream buffer.
+ * <p>
+ * A stream that finds the bytes of a repository ID in the table gets back the canonical String for them instead of
+ * decoding a new one. Besides saving the decoding and the allocation, all readers then share one String instance per
+ * repository ID, whose hash code is computed only once, so the later lookups in RepositoryId.cache and the other
+ * repository ID keyed tables no longer hash and compare fresh copies.
+ * <p>
+ * Only IDs made of ASCII bytes are kept, and only streams whose char code set maps ASCII bytes to the same chars
+ * consult the table, so the canonical String is always the one the stream would have decoded. The table is a fixed
+ * array probed over a few slots; when they are all taken the last one is replaced, which bounds the table without any
+ * bookkeeping. Entries are immutable and published through their final fields, so no locking is needed.
+ */
+final class RepositoryIdTable
+{
+    // size must be power of 2
+    private static final int SIZE = 1024;
+
+    private static final int PROBES = 4;
+
+    // Longer strings are not worth keeping.
+    private static final int MAX_LENGTH = 256;
+
+    private static final class Entry
+    {
+        final int hash;
+
+        final byte[] bytes;
+
+        final String string;
+
+        Entry(int hash, byte[] bytes, String string)
+        {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.string = string;
+        }
+    }
+
+    private static final Entry[] table = new Entry[SIZE];
+
+    private RepositoryIdTable()
+    {
+    }
+
+    /**
+     * Returns the canonical String for the length bytes of bb at position, or null if they are not in the table. The
+     * position of bb is not changed.
+     */
+    static String get(ByteBuffer bb, int position, int length)
+    {
+        if (length > MAX_LENGTH)
+            return null;
+
+        int hash = hash(bb, position, length);
+        Entry[] tab = table;
+        for (int i = 0; i < PROBES; i++)
+        {
+            Entry entry = tab[(hash + i) & (SIZE - 1)];
+            if (entry != null && entry.hash == hash && matches(entry.bytes, bb, position, length))
+                return entry.string;
+        }
+        return null;
+    }
+
+    /**
+     * Records string as the canonical String for the length bytes of bb at position, unless they are not all ASCII.
+     * The position of bb is not changed.
+     */
+    static void put(ByteBuffer bb, int position, int length, String string)
+    {
+        if (length > MAX_LENGTH)
+            return;
+
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            byte b = bb.get(position + i);
+            if (b < 0)
+                return;
+            bytes[i] = b;
+        }
+
+        int hash = hash(bb, position, length);
+        Entry entry = new Entry(hash, bytes, string);
+
+        Entry[] tab = table;
+        int slot = (hash + PROBES - 1) & (SIZE - 1);
+        for (int i = 0; i < PROBES; i++)
+        {
+            if (tab[(hash + i) & (SIZE - 1)] == null)
+            {
+                slot = (hash + i) & (SIZE - 1);
+                break;
+            }
+        }
+        tab[slot] = entry;
+    }
+
+    private static int hash(ByteBuffer bb, int position, int length)
+    {
+        int h = length;
+        for (int i = 0; i < length; i++)
+            h = 31 * h + bb.get(position + i);
+
+        // Spread the bits, as in CacheTable.
+        h += ~(h << 9);
+        h ^= (h >>> 14);
+        h += (h << 4);
+        h ^= (h >>> 10);
+        return h;
+    }
+
+    private static boolean matches(byte[] bytes, ByteBuffer bb, int position, int length)
+    {
+        if (bytes.length != length)
+            return false;
+
+        for (int i = 0; i < length; i++)
+        {
+            if (bytes[i] != bb.get(position + i))
+                return false;
+        }
+        return true;
+    }
+}
@@ -1833,6 +1833,24 @@ public class IIOPInputStream extends org.jboss.com.sun.corba.se.impl.io.InputStr
         }
     }
 
+    /*
+     * Clear everything that refers to the last graph read, so that a stream kept in the IIOPStreamPool does not keep its
+     * classes, descriptors and objects, and through them their class loaders, reachable.
+     */
+    final void clearForPool()
+    {
+        for (int i = 0; i < classes.length; i++)
+            classes[i] = null;
+        for (int i = 0; i < classdesc.length; i++)
+            classdesc[i] = null;
+        spClass = 0;
+
+        currentObject = null;
+        currentClass = null;
+        currentClassDesc = null;
+        callbacks = null;
+    }
+
     /*
      * Reset the stream to be just like it was after the constructor.
      */
@@ -2336,12 +2354,21 @@ public class IIOPInputStream extends org.jboss.com.sun.corba.se.impl.io.InputStr
 
         if (o != null)
         {
-            for (int i = 0; i < primFields; ++i)
+            // Read all of the primitive fields in one pass when the class descriptor has an accessor for them.
+            PrimitiveFieldAccessor accessor = currentClassDesc.getPrimitiveFieldAccessor();
+            if (accessor != null && fields == currentClassDesc.getFieldsNoCopy())
             {
-                if (fields[i].getField() == null)
-                    continue;
+                accessor.readFields(o, orbStream);
+            }
+            else
+            {
+                for (int i = 0; i < primFields; ++i)
+                {
+                    if (fields[i].getField() == null)
+                        continue;
 
-                inputPrimitiveField(o, cl, fields[i]);
+                    inputPrimitiveField(o, cl, fields[i]);
+                }
             }
         }
 
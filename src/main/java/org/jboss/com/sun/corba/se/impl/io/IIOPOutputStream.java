@@ -112,6 +112,19 @@ public class IIOPOutputStream extends org.jboss.com.sun.corba.se.impl.io.OutputS
         return orbStream;
     }
 
+    /*
+     * Clear everything that refers to the last graph written, so that a stream kept in the IIOPStreamPool does not keep
+     * its descriptors and objects, and through them their class loaders, reachable.
+     */
+    final void clearForPool()
+    {
+        if (classDescStack != null)
+            classDescStack.setSize(0);
+
+        currentObject = null;
+        currentClassDesc = null;
+    }
+
     public final void increaseRecursionDepth()
     {
         recursionDepth++;
@@ -797,8 +810,17 @@ public class IIOPOutputStream extends org.jboss.com.sun.corba.se.impl.io.OutputS
     private void outputClassFields(Object o, Class<?> cl, ObjectStreamField[] fields) throws IOException,
             InvalidClassException
     {
+        int first = 0;
+
+        // Write all of the primitive fields in one pass when the class descriptor has an accessor for them.
+        PrimitiveFieldAccessor accessor = currentClassDesc.getPrimitiveFieldAccessor();
+        if (accessor != null && fields == currentClassDesc.getFieldsNoCopy())
+        {
+            accessor.writeFields(o, orbStream);
+            first = fields.length - currentClassDesc.objFields;
+        }
 
-        for (int i = 0; i < fields.length; i++)
+        for (int i = first; i < fields.length; i++)
         {
             if (fields[i].getField() == null)
                 // XXX I18N, Logging needed.
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded per-thread pool of the IIOPInputStream and IIOPOutputStream bridges used by ValueHandlerImpl.
+ * <p>
+ * Creating a bridge runs privileged actions and, for custom stream classes, a class lookup, and the ObjectInputStream
+ * and ObjectOutputStream constructors run subclass security checks. ValueHandlerImpl creates a bridge for each
+ * outermost readValue or writeValue on an ORB stream. Nested calls on the same ORB stream, such as the ones made from
+ * custom writeObject and readObject methods, already share that bridge. Once the outermost call returns normally, the
+ * bridge is back at recursion depth 0 with its per-call state restored, so it is handed back here and reused for the
+ * next ORB stream instead of being dropped. Bridges whose call ended with an exception are never pooled.
+ * <p>
+ * Bridges are matched by class name, because ValueHandlerImpl subclasses use their own stream classes.
+ */
+public final class IIOPStreamPool
+{
+    // Number of bridges of each kind kept per thread.
+    private static final int POOL_SIZE = 4;
+
+    private static final ThreadLocal<IIOPStreamPool> pools = new ThreadLocal<IIOPStreamPool>()
+    {
+        protected IIOPStreamPool initialValue()
+        {
+            return new IIOPStreamPool();
+        }
+    };
+
+    private static final AtomicLong hits = new AtomicLong();
+
+    private static final AtomicLong misses = new AtomicLong();
+
+    private final IIOPOutputStream[] outputStreams = new IIOPOutputStream[POOL_SIZE];
+
+    private final IIOPInputStream[] inputStreams = new IIOPInputStream[POOL_SIZE];
+
+    private IIOPStreamPool()
+    {
+    }
+
+    /**
+     * Returns a pooled output stream bridge of the named class, or null if the calling thread has none.
+     */
+    static IIOPOutputStream getOutputStream(String className)
+    {
+        IIOPOutputStream[] streams = pools.get().outputStreams;
+        for (int i = 0; i < streams.length; i++)
+        {
+            IIOPOutputStream stream = streams[i];
+            if (stream != null && stream.getClass().getName().equals(className))
+            {
+                streams[i] = null;
+                hits.incrementAndGet();
+                return stream;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Hands an output stream bridge whose outermost call has returned back to the calling thread's pool.
+     */
+    static void releaseOutputStream(IIOPOutputStream stream)
+    {
+        // Do not keep the ORB stream and its buffers, or the last graph written, reachable from the pool.
+        stream.setOrbStream(null);
+        stream.clearForPool();
+
+        IIOPOutputStream[] streams = pools.get().outputStreams;
+        for (int i = 0; i < streams.length; i++)
+        {
+            if (streams[i] == null)
+            {
+                streams[i] = stream;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a pooled input stream bridge of the named class, or null if the calling thread has none.
+     */
+    static IIOPInputStream getInputStream(String className)
+    {
+        IIOPInputStream[] streams = pools.get().inputStreams;
+        for (int i = 0; i < streams.length; i++)
+        {
+            IIOPInputStream stream = streams[i];
+            if (stream != null && stream.getClass().getName().equals(className))
+            {
+                streams[i] = null;
+                hits.incrementAndGet();
+                return stream;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Hands an input stream bridge whose outermost call has returned back to the calling thread's pool.
+     */
+    static void releaseInputStream(IIOPInputStream stream)
+    {
+        // Do not keep the ORB stream, the sending context, the value handler or the last graph read reachable from the
+        // pool.
+        stream.setOrbStream(null);
+        stream.setSender(null);
+        stream.setValueHandler(null);
+        stream.clearForPool();
+
+        IIOPInputStream[] streams = pools.get().inputStreams;
+        for (int i = 0; i < streams.length; i++)
+        {
+            if (streams[i] == null)
+            {
+                streams[i] = stream;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of bridges taken from a pool instead of being created.
+     */
+    public static long getHitCount()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Number of times no pooled bridge was available and a new one had to be created.
+     */
+    public static long getMissCount()
+    {
+        return misses.get();
+    }
+}
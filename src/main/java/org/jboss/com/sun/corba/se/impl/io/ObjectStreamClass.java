@@ -52,6 +52,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Hashtable;
 
+import org.jboss.com.sun.corba.se.impl.orbutil.ClassCache;
 import org.jboss.com.sun.corba.se.impl.util.RepositoryId;
 import org.jboss.sun.corba.Bridge;
 import org.omg.CORBA.ValueMember;
@@ -103,65 +104,60 @@ public class ObjectStreamClass implements java.io.Serializable
     static ObjectStreamClass lookupInternal(Class<?> cl)
     {
         /*
-         * Synchronize on the hashtable so no two threads will do this at the same time.
+         * The descriptor cache is a concurrent map, so looking up a known class takes no lock and two threads only
+         * race when they both find the class missing. In that case both build a descriptor but only the one that
+         * makes it into the cache is initialized and returned, so the expensive part of the work is done once per
+         * class.
          */
-        ObjectStreamClass desc = null;
-        synchronized (descriptorFor)
+        ObjectStreamClass desc = findDescriptorFor(cl);
+        if (desc == null)
         {
-            /* Find the matching descriptor if it already known */
-            desc = findDescriptorFor(cl);
-            if (desc == null)
-            {
-                /* Check if it's serializable */
-                boolean serializable = classSerializable.isAssignableFrom(cl);
+            /* Check if it's serializable */
+            boolean serializable = classSerializable.isAssignableFrom(cl);
 
-                /*
-                 * If the class is only Serializable, lookup the descriptor for the superclass.
-                 */
-                ObjectStreamClass superdesc = null;
-                if (serializable)
-                {
-                    Class<?> superclass = cl.getSuperclass();
-                    if (superclass != null)
-                        superdesc = lookup(superclass);
-                }
+            /*
+             * If the class is only Serializable, lookup the descriptor for the superclass.
+             */
+            ObjectStreamClass superdesc = null;
+            if (serializable)
+            {
+                Class<?> superclass = cl.getSuperclass();
+                if (superclass != null)
+                    superdesc = lookup(superclass);
+            }
 
-                /*
-                 * Check if its' externalizable. If it's Externalizable, clear the serializable flag. Only one or the
-                 * other may be set in the protocol.
-                 */
-                boolean externalizable = false;
-                if (serializable)
+            /*
+             * Check if its' externalizable. If it's Externalizable, clear the serializable flag. Only one or the other
+             * may be set in the protocol.
+             */
+            boolean externalizable = false;
+            if (serializable)
+            {
+                externalizable = ((superdesc != null) && superdesc.isExternalizable())
+                        || classExternalizable.isAssignableFrom(cl);
+                if (externalizable)
                 {
-                    externalizable = ((superdesc != null) && superdesc.isExternalizable())
-                            || classExternalizable.isAssignableFrom(cl);
-                    if (externalizable)
-                    {
-                        serializable = false;
-                    }
+                    serializable = false;
                 }
-
-                /*
-                 * Create a new version descriptor, it put itself in the known table.
-                 */
-                desc = new ObjectStreamClass(cl, superdesc, serializable, externalizable);
             }
-            // Must always call init. See bug 4488137. This code was
-            // incorrectly changed to return immediately on a non-null
-            // cache result. That allowed threads to gain access to
-            // unintialized instances.
-            //
-            // History: Note, the following init() call was originally within
-            // the synchronization block, as it currently is now. Later, the
-            // init() call was moved outside the synchronization block, and
-            // the init() method used a private member variable lock, to
-            // avoid performance problems. See bug 4165204. But that lead to
-            // a deadlock situation, see bug 5104239. Hence, the init() method
-            // has now been moved back into the synchronization block. The
-            // right approach to solving these problems would be to rewrite
-            // this class, based on the latest java.io.ObjectStreamClass.
-            desc.init();
+
+            /*
+             * Create a new version descriptor and put it in the known table, unless another thread got there first.
+             */
+            desc = insertDescriptorFor(new ObjectStreamClass(cl, superdesc, serializable, externalizable));
         }
+        // Must always call init. See bug 4488137. This code was
+        // incorrectly changed to return immediately on a non-null
+        // cache result. That allowed threads to gain access to
+        // unintialized instances.
+        //
+        // init() synchronizes on the descriptor's own lock only. It used
+        // to run under the global descriptor table lock because of the
+        // deadlock described in bug 5104239, between that global lock and
+        // the descriptor lock. Now that the table takes no lock the only
+        // nested locking left is from a class to its superclasses (see
+        // computeStructuralUID), which cannot form a cycle.
+        desc.init();
         return desc;
     }
 
@@ -388,14 +384,8 @@ public class ObjectStreamClass implements java.io.Serializable
         }
 
         /*
-         * Enter this class in the table of known descriptors. Otherwise, when the fields are read it may recurse trying
-         * to find the descriptor for itself.
-         */
-        insertDescriptorFor(this);
-
-        /*
-         * The remainder of initialization occurs in init(), which is called after the lock on the global class
-         * descriptor table has been released.
+         * The remainder of initialization occurs in init(), which is called once lookupInternal has entered this
+         * descriptor in the table of known descriptors.
          */
     }
 
@@ -534,6 +524,10 @@ public class ObjectStreamClass implements java.io.Serializable
              * 
              * NonSerializable classes have a serialVerisonUID of 0L.
              */
+            // The UIDs computed for the same class files by an earlier run, if the index is enabled.
+            final SerialVersionUIDIndex.Entry indexed = (isNonSerializable() || forProxyClass) ? null
+                    : SerialVersionUIDIndex.find(cl);
+
             if (isNonSerializable())
             {
                 suid = 0L;
@@ -566,20 +560,20 @@ public class ObjectStreamClass implements java.io.Serializable
                                 }
                                 else
                                 {
-                                    suid = _computeSerialVersionUID(cl);
+                                    suid = _computeSerialVersionUID(cl, indexed);
                                     // SerialBug 2: should be computed after writeObject actualSuid =
                                     // computeStructuralUID(cl);
                                 }
                             }
                             catch (NoSuchFieldException ex)
                             {
-                                suid = _computeSerialVersionUID(cl);
+                                suid = _computeSerialVersionUID(cl, indexed);
                                 // SerialBug 2: should be computed after writeObject actualSuid =
                                 // computeStructuralUID(cl);
                             }
                             catch (IllegalAccessException ex)
                             {
-                                suid = _computeSerialVersionUID(cl);
+                                suid = _computeSerialVersionUID(cl, indexed);
                             }
                         }
 
@@ -611,7 +605,16 @@ public class ObjectStreamClass implements java.io.Serializable
             }
 
             // This call depends on a lot of information computed above!
-            actualSuid = ObjectStreamClass.computeStructuralUID(this, cl);
+            if (indexed != null && indexed.known)
+            {
+                actualSuid = indexed.structuralUID;
+            }
+            else
+            {
+                actualSuid = ObjectStreamClass.computeStructuralUID(this, cl);
+                if (indexed != null)
+                    SerialVersionUIDIndex.store(indexed, suid, actualSuid);
+            }
 
             // If we have a write object method, precompute the RMI-IIOP stream format version 2 optional data
             // repository ID.
@@ -1097,6 +1100,16 @@ public class ObjectStreamClass implements java.io.Serializable
                     break;
             }
         }
+
+        primFieldAccessor = PrimitiveFieldAccessor.create(fields, fields.length - objFields);
+    }
+
+    /*
+     * Returns the accessor for the primitive fields of this class, or null if they must be accessed one by one.
+     */
+    final PrimitiveFieldAccessor getPrimitiveFieldAccessor()
+    {
+        return primFieldAccessor;
     }
 
     private static void msg(String str)
@@ -1119,6 +1132,16 @@ public class ObjectStreamClass implements java.io.Serializable
     public static final int METHOD_MASK = Modifier.PUBLIC | Modifier.PRIVATE | Modifier.PROTECTED | Modifier.STATIC
             | Modifier.FINAL | Modifier.SYNCHRONIZED | Modifier.NATIVE | Modifier.ABSTRACT | Modifier.STRICT;
 
+    /*
+     * Returns the default serialVersionUID from the index entry if there is one, and computes it otherwise.
+     */
+    private static long _computeSerialVersionUID(Class<?> cl, SerialVersionUIDIndex.Entry indexed)
+    {
+        if (indexed != null && indexed.known)
+            return indexed.suid;
+        return _computeSerialVersionUID(cl);
+    }
+
     /*
      * Compute a hash for the specified class. Incrementally add items to the hash accumulating in the digest stream.
      * Fold the hash into a long. Use the SHA secure hash function.
@@ -1344,7 +1367,12 @@ public class ObjectStreamClass implements java.io.Serializable
             // && (parent != java.lang.Object.class))
             {
                 // data.writeLong(computeSerialVersionUID(null,parent));
-                data.writeLong(computeStructuralUID(lookup(parent), parent));
+                // The parent descriptor has already computed its structural UID when it was initialized, so use it
+                // instead of walking the whole superclass chain again. A parent that is not serializable has none.
+                ObjectStreamClass parentDesc = lookup(parent);
+                if (parentDesc != null)
+                    parentDesc.init();
+                data.writeLong((parentDesc == null) ? 0 : parentDesc.actualSuid);
             }
 
             if (osc.hasWriteObject())
@@ -1503,68 +1531,27 @@ public class ObjectStreamClass implements java.io.Serializable
     }
 
     /*
-     * Cache of Class -> ClassDescriptor Mappings.
+     * Cache of Class -> ClassDescriptor Mappings. The cache holds its classes weakly and the descriptors softly, so
+     * that neither keeps the class, and hence its class loader, from being unloaded once an application is undeployed.
      */
-    static private ObjectStreamClassEntry[] descriptorFor = new ObjectStreamClassEntry[61];
+    private static final ClassCache<ObjectStreamClass> descriptorFor = new ClassCache<ObjectStreamClass>();
 
     /*
      * findDescriptorFor a Class. This looks in the cache for a mapping from Class -> ObjectStreamClass mappings. The
-     * hashCode of the Class is used for the lookup since the Class is the key. The entries are extended from
-     * java.lang.ref.SoftReference so the gc will be able to free them if needed.
+     * identity of the Class is used for the lookup since the Class is the key.
      */
     private static ObjectStreamClass findDescriptorFor(Class<?> cl)
     {
-
-        int hash = cl.hashCode();
-        int index = (hash & 0x7FFFFFFF) % descriptorFor.length;
-        ObjectStreamClassEntry e;
-        ObjectStreamClassEntry prev;
-
-        /* Free any initial entries whose refs have been cleared */
-        while ((e = descriptorFor[index]) != null && e.get() == null)
-        {
-            descriptorFor[index] = e.next;
-        }
-
-        /*
-         * Traverse the chain looking for a descriptor with ofClass == cl. unlink entries that are unresolved.
-         */
-        prev = e;
-        while (e != null)
-        {
-            ObjectStreamClass desc = (ObjectStreamClass) (e.get());
-            if (desc == null)
-            {
-                // This entry has been cleared, unlink it
-                prev.next = e.next;
-            }
-            else
-            {
-                if (desc.ofClass == cl)
-                    return desc;
-                prev = e;
-            }
-            e = e.next;
-        }
-        return null;
+        return descriptorFor.get(cl);
     }
 
     /*
-     * insertDescriptorFor a Class -> ObjectStreamClass mapping.
+     * insertDescriptorFor a Class -> ObjectStreamClass mapping. Returns the descriptor now in the cache, which is not
+     * desc if another thread inserted a descriptor for the same class first.
      */
-    private static void insertDescriptorFor(ObjectStreamClass desc)
+    private static ObjectStreamClass insertDescriptorFor(ObjectStreamClass desc)
     {
-        // Make sure not already present
-        if (findDescriptorFor(desc.ofClass) != null)
-        {
-            return;
-        }
-
-        int hash = desc.ofClass.hashCode();
-        int index = (hash & 0x7FFFFFFF) % descriptorFor.length;
-        ObjectStreamClassEntry e = new ObjectStreamClassEntry(desc);
-        e.next = descriptorFor[index];
-        descriptorFor[index] = e;
+        return descriptorFor.putIfAbsent(desc.ofClass, desc);
     }
 
     /*
@@ -1620,6 +1607,11 @@ public class ObjectStreamClass implements java.io.Serializable
 
     int objFields;
 
+    /*
+     * Reads and writes the primitive fields in one pass, if they all have a local field.
+     */
+    private PrimitiveFieldAccessor primFieldAccessor;
+
     /**
      * Flag indicating whether or not this instance has successfully completed initialization. This is to try to fix bug
      * 4373844. Working to move to reusing java.io.ObjectStreamClass for JDK 1.5.
@@ -1749,28 +1741,6 @@ public class ObjectStreamClass implements java.io.Serializable
      */
     public static final ObjectStreamField[] NO_FIELDS = new ObjectStreamField[0];
 
-    /*
-     * Entries held in the Cache of known ObjectStreamClass objects. Entries are chained together with the same hash
-     * value (modulo array size).
-     */
-    private static class ObjectStreamClassEntry // extends java.lang.ref.SoftReference
-    {
-        ObjectStreamClassEntry(ObjectStreamClass c)
-        {
-            // super(c);
-            this.c = c;
-        }
-
-        ObjectStreamClassEntry next;
-
-        public Object get()
-        {
-            return c;
-        }
-
-        private ObjectStreamClass c;
-    }
-
     /*
      * Comparator object for Classes and Interfaces
      */
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.io;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+import org.jboss.sun.corba.Bridge;
+
+/**
+ * Reads and writes all of the primitive fields of one serializable class in a single pass, for IIOPInputStream and
+ * IIOPOutputStream.
+ * <p>
+ * The accessor is built once per ObjectStreamClass from its sorted fields, in which the primitive fields come first.
+ * It keeps the field offsets and a dense type index in two plain arrays, so marshalling a value is one loop over those
+ * arrays that goes straight to the Bridge, instead of going through each ObjectStreamField and its reflected Field and
+ * switching on the type code character.
+ */
+final class PrimitiveFieldAccessor
+{
+    private static final Bridge bridge = AccessController.doPrivileged(new PrivilegedAction<Bridge>()
+    {
+        public Bridge run()
+        {
+            return Bridge.get();
+        }
+    });
+
+    // Dense type indexes, so that the switches below compile to a table switch.
+    private static final int BYTE = 0;
+
+    private static final int BOOLEAN = 1;
+
+    private static final int CHAR = 2;
+
+    private static final int SHORT = 3;
+
+    private static final int INT = 4;
+
+    private static final int LONG = 5;
+
+    private static final int FLOAT = 6;
+
+    private static final int DOUBLE = 7;
+
+    private final int[] types;
+
+    private final long[] fieldIDs;
+
+    private PrimitiveFieldAccessor(int[] types, long[] fieldIDs)
+    {
+        this.types = types;
+        this.fieldIDs = fieldIDs;
+    }
+
+    /**
+     * Returns an accessor for the first primFields entries of fields, or null if one of them has no local field to
+     * access. The streams then fall back to handling the fields one by one.
+     */
+    static PrimitiveFieldAccessor create(ObjectStreamField[] fields, int primFields)
+    {
+        int[] types = new int[primFields];
+        long[] fieldIDs = new long[primFields];
+
+        for (int i = 0; i < primFields; i++)
+        {
+            ObjectStreamField field = fields[i];
+            if (field.getField() == null || field.getFieldID() == Bridge.INVALID_FIELD_OFFSET)
+                return null;
+
+            switch (field.getTypeCode())
+            {
+                case 'B' :
+                    types[i] = BYTE;
+                    break;
+                case 'Z' :
+                    types[i] = BOOLEAN;
+                    break;
+                case 'C' :
+                    types[i] = CHAR;
+                    break;
+                case 'S' :
+                    types[i] = SHORT;
+                    break;
+                case 'I' :
+                    types[i] = INT;
+                    break;
+                case 'J' :
+                    types[i] = LONG;
+                    break;
+                case 'F' :
+                    types[i] = FLOAT;
+                    break;
+                case 'D' :
+                    types[i] = DOUBLE;
+                    break;
+                default :
+                    return null;
+            }
+            fieldIDs[i] = field.getFieldID();
+        }
+
+        return new PrimitiveFieldAccessor(types, fieldIDs);
+    }
+
+    void writeFields(Object o, org.omg.CORBA.portable.OutputStream out)
+    {
+        final int[] types = this.types;
+        final long[] fieldIDs = this.fieldIDs;
+
+        for (int i = 0; i < types.length; i++)
+        {
+            long fieldID = fieldIDs[i];
+            switch (types[i])
+            {
+                case BYTE :
+                    out.write_octet(bridge.getByte(o, fieldID));
+                    break;
+                case BOOLEAN :
+                    out.write_boolean(bridge.getBoolean(o, fieldID));
+                    break;
+                case CHAR :
+                    out.write_wchar(bridge.getChar(o, fieldID));
+                    break;
+                case SHORT :
+                    out.write_short(bridge.getShort(o, fieldID));
+                    break;
+                case INT :
+                    out.write_long(bridge.getInt(o, fieldID));
+                    break;
+                case LONG :
+                    out.write_longlong(bridge.getLong(o, fieldID));
+                    break;
+                case FLOAT :
+                    out.write_float(bridge.getFloat(o, fieldID));
+                    break;
+                case DOUBLE :
+                    out.write_double(bridge.getDouble(o, fieldID));
+                    break;
+            }
+        }
+    }
+
+    void readFields(Object o, org.omg.CORBA.portable.InputStream in)
+    {
+        final int[] types = this.types;
+        final long[] fieldIDs = this.fieldIDs;
+
+        for (int i = 0; i < types.length; i++)
+        {
+            long fieldID = fieldIDs[i];
+            switch (types[i])
+            {
+                case BYTE :
+                    bridge.putByte(o, fieldID, in.read_octet());
+                    break;
+                case BOOLEAN :
+                    bridge.putBoolean(o, fieldID, in.read_boolean());
+                    break;
+                case CHAR :
+                    bridge.putChar(o, fieldID, in.read_wchar());
+                    break;
+                case SHORT :
+                    bridge.putShort(o, fieldID, in.read_short());
+                    break;
+                case INT :
+                    bridge.putInt(o, fieldID, in.read_long());
+                    break;
+                case LONG :
+                    bridge.putLong(o, fieldID, in.read_longlong());
+                    break;
+                case FLOAT :
+                    bridge.putFloat(o, fieldID, in.read_float());
+                    break;
+                case DOUBLE :
+                    bridge.putDouble(o, fieldID, in.read_double());
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import org.jboss.com.sun.corba.se.impl.orbutil.ClassCache;
+
+/**
+ * An optional on-disk index of the serialVersionUID and structural UID computed for classes by ObjectStreamClass, so
+ * that a restarted server does not have to redo the reflection and SHA work for every class the first time it is
+ * marshalled.
+ * <p>
+ * The index is enabled by setting the {@link #INDEX_FILE_PROPERTY} system property to the path of the index file. Each
+ * line of the file holds a class name, a checksum, the two UIDs and a CRC32 of the rest of the line, in hex. The
+ * checksum combines the CRC32s of the class files of the class and all of its superclasses, since the structural UID
+ * also covers the superclasses, so an entry is only used for exactly the class files it was computed from. The CRC32
+ * of each class file is computed once per run. Classes whose class files cannot be read through their class loader
+ * are not indexed. Repository IDs are not stored; they are derived cheaply from the two UIDs.
+ * <p>
+ * Lines whose CRC32 does not match, such as lines torn by a crash or by another process writing the same file, are
+ * ignored. New entries are queued without locking and appended in batches of whole lines, every BATCH_SIZE entries
+ * and when the VM exits, and the file is compacted by writing a temporary file and renaming it over the index. Any I/O error disables the index for the rest of the run; it is only ever an
+ * optimization.
+ */
+final class SerialVersionUIDIndex
+{
+    public static final String INDEX_FILE_PROPERTY = "org.jboss.com.sun.CORBA.io.SerialVersionUIDIndexFile";
+
+    private static final SerialVersionUIDIndex instance = AccessController
+            .doPrivileged(new PrivilegedAction<SerialVersionUIDIndex>()
+            {
+                public SerialVersionUIDIndex run()
+                {
+                    String fileName = System.getProperty(INDEX_FILE_PROPERTY);
+                    if (fileName == null)
+                        return null;
+
+                    SerialVersionUIDIndex index = new SerialVersionUIDIndex(new File(fileName));
+                    return index.load() ? index : null;
+                }
+            });
+
+    /**
+     * The index entry of one class. If known is false the UIDs have not been computed yet, and must be passed to
+     * {@link SerialVersionUIDIndex#store(Entry, long, long)} once they are.
+     */
+    static final class Entry
+    {
+        final String key;
+
+        final boolean known;
+
+        final long suid;
+
+        final long structuralUID;
+
+        Entry(String key, boolean known, long suid, long structuralUID)
+        {
+            this.key = key;
+            this.known = known;
+            this.suid = suid;
+            this.structuralUID = structuralUID;
+        }
+    }
+
+    private final File file;
+
+    // The CRC32 of the class file of each class, or UNREADABLE.
+    private static final ClassCache<Long> classFileCRCs = new ClassCache<Long>();
+
+    private static final Long UNREADABLE = Long.valueOf(-1);
+
+    // Number of new entries that are written to the file together.
+    private static final int BATCH_SIZE = 64;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    // New entries that have not been written to the file yet, and their number.
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<Entry>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private volatile boolean disabled = false;
+
+    private SerialVersionUIDIndex(File file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Returns the index entry for cl, or null if the index is disabled or cl cannot be indexed.
+     */
+    static Entry find(final Class<?> cl)
+    {
+        final SerialVersionUIDIndex index = instance;
+        if (index == null || index.disabled)
+            return null;
+
+        return AccessController.doPrivileged(new PrivilegedAction<Entry>()
+        {
+            public Entry run()
+            {
+                String key = key(cl);
+                if (key == null)
+                    return null;
+
+                Entry entry = index.entries.get(key);
+                return (entry != null) ? entry : new Entry(key, false, 0, 0);
+            }
+        });
+    }
+
+    /**
+     * Records the UIDs computed for a class found by {@link #find(Class)} with an unknown entry.
+     */
+    static void store(final Entry entry, final long suid, final long structuralUID)
+    {
+        final SerialVersionUIDIndex index = instance;
+        if (index == null || index.disabled)
+            return;
+
+        AccessController.doPrivileged(new PrivilegedAction<Void>()
+        {
+            public Void run()
+            {
+                index.append(new Entry(entry.key, true, suid, structuralUID));
+                return null;
+            }
+        });
+    }
+
+    // The key is the class name followed by the checksum of the class files of the class and its superclasses.
+    private static String key(Class<?> cl)
+    {
+        CRC32 crc = new CRC32();
+
+        for (Class<?> c = cl; c != null; c = c.getSuperclass())
+        {
+            long classFileCRC = classFileCRC(c);
+            if (classFileCRC == UNREADABLE.longValue())
+                return null;
+
+            for (int shift = 24; shift >= 0; shift -= 8)
+                crc.update((int) (classFileCRC >>> shift));
+        }
+
+        return cl.getName() + ' ' + Long.toHexString(crc.getValue());
+    }
+
+    private static long classFileCRC(Class<?> c)
+    {
+        Long value = classFileCRCs.get(c);
+        if (value == null)
+            value = classFileCRCs.putIfAbsent(c, readClassFileCRC(c));
+
+        return value.longValue();
+    }
+
+    private static Long readClassFileCRC(Class<?> c)
+    {
+        String resource = c.getName().replace('.', '/') + ".class";
+        ClassLoader loader = c.getClassLoader();
+        InputStream in = (loader == null) ? ClassLoader.getSystemResourceAsStream(resource) : loader
+                .getResourceAsStream(resource);
+        if (in == null)
+            return UNREADABLE;
+
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[4096];
+        try
+        {
+            try
+            {
+                int n;
+                while ((n = in.read(buf)) > 0)
+                    crc.update(buf, 0, n);
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (IOException exc)
+        {
+            return UNREADABLE;
+        }
+
+        return Long.valueOf(crc.getValue());
+    }
+
+    // Reads the index file, if it exists. Returns false if the index cannot be used.
+    private boolean load()
+    {
+        int lines = 0;
+
+        if (file.exists())
+        {
+            try
+            {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+                try
+                {
+                    String line;
+                    while ((line = reader.readLine()) != null)
+                    {
+                        lines++;
+                        Entry entry = parse(line);
+                        if (entry != null)
+                            entries.put(entry.key, entry);
+                    }
+                }
+                finally
+                {
+                    reader.close();
+                }
+            }
+            catch (IOException exc)
+            {
+                return false;
+            }
+        }
+
+        // Rewrite the file without the entries of old versions of classes or unreadable lines. The new file is
+        // written aside and renamed over the old one, so that a reader never sees it half written.
+        if (lines > entries.size())
+        {
+            try
+            {
+                File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+                Writer writer = new OutputStreamWriter(new FileOutputStream(temp), "UTF-8");
+                try
+                {
+                    for (Entry entry : entries.values())
+                        writer.write(format(entry));
+                }
+                finally
+                {
+                    writer.close();
+                }
+
+                if (!temp.renameTo(file))
+                {
+                    // Some platforms do not rename over an existing file. Keep the old file, which is still valid.
+                    temp.delete();
+                }
+            }
+            catch (IOException exc)
+            {
+                return false;
+            }
+        }
+
+        // Write the entries still pending when the VM exits.
+        Runtime.getRuntime().addShutdownHook(new Thread("SerialVersionUIDIndex writer")
+        {
+            public void run()
+            {
+                flush();
+            }
+        });
+
+        return true;
+    }
+
+    private static Entry parse(String line)
+    {
+        String[] tokens = line.trim().split(" ");
+        if (tokens.length != 5)
+            return null;
+
+        try
+        {
+            // parse the hex strings as unsigned values, as written by Long.toHexString
+            long suid = new java.math.BigInteger(tokens[2], 16).longValue();
+            long structuralUID = new java.math.BigInteger(tokens[3], 16).longValue();
+            long lineCRC = Long.parseLong(tokens[4], 16);
+
+            Entry entry = new Entry(tokens[0] + ' ' + tokens[1], true, suid, structuralUID);
+            return (lineCRC == crc(fields(entry))) ? entry : null;
+        }
+        catch (NumberFormatException exc)
+        {
+            return null;
+        }
+    }
+
+    private void append(Entry entry)
+    {
+        if (disabled || entries.putIfAbsent(entry.key, entry) != null)
+            return;
+
+        pending.add(entry);
+        if (pendingCount.incrementAndGet() >= BATCH_SIZE)
+            flush();
+    }
+
+    // Appends the pending entries to the file with one write, so that appends from other processes do not interleave
+    // with them.
+    private synchronized void flush()
+    {
+        if (disabled)
+            return;
+
+        StringBuilder lines = new StringBuilder();
+        int count = 0;
+        Entry entry;
+        while ((entry = pending.poll()) != null)
+        {
+            lines.append(format(entry));
+            count++;
+        }
+        pendingCount.addAndGet(-count);
+
+        if (count == 0)
+            return;
+
+        try
+        {
+            OutputStream out = new FileOutputStream(file, true);
+            try
+            {
+                out.write(lines.toString().getBytes("UTF-8"));
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        catch (IOException exc)
+        {
+            disabled = true;
+        }
+    }
+
+    private static String fields(Entry entry)
+    {
+        return entry.key + ' ' + Long.toHexString(entry.suid) + ' ' + Long.toHexString(entry.structuralUID);
+    }
+
+    private static String format(Entry entry)
+    {
+        String fields = fields(entry);
+        return fields + ' ' + Long.toHexString(crc(fields)) + '\n';
+    }
+
+    private static long crc(String fields)
+    {
+        CRC32 crc = new CRC32();
+        try
+        {
+            crc.update(fields.getBytes("UTF-8"));
+        }
+        catch (UnsupportedEncodingException exc)
+        {
+            // UTF-8 is always supported
+        }
+        return crc.getValue();
+    }
+}
@@ -217,22 +217,30 @@ public class ValueHandlerImpl implements javax.rmi.CORBA.ValueHandlerMultiFormat
 
         if (jdkToOrbOutputStreamBridge == null)
         {
-            jdkToOrbOutputStreamBridge = createOutputStream();
+            jdkToOrbOutputStreamBridge = IIOPStreamPool.getOutputStream(getOutputStreamClassName());
+            if (jdkToOrbOutputStreamBridge == null)
+                jdkToOrbOutputStreamBridge = createOutputStream();
             jdkToOrbOutputStreamBridge.setOrbStream(out);
             outputStreamPairs.put(_out, jdkToOrbOutputStreamBridge);
         }
 
+        boolean completed = false;
         try
         {
 
             jdkToOrbOutputStreamBridge.increaseRecursionDepth();
             writeValueInternal(jdkToOrbOutputStreamBridge, out, value, streamFormatVersion);
+            completed = true;
         }
         finally
         {
             if (jdkToOrbOutputStreamBridge.decreaseRecursionDepth() == 0)
             {
                 outputStreamPairs.remove(_out);
+
+                // Only a bridge that unwound normally is known to be back in its initial state.
+                if (completed)
+                    IIOPStreamPool.releaseOutputStream(jdkToOrbOutputStreamBridge);
             }
         }
     }
@@ -306,7 +314,9 @@ public class ValueHandlerImpl implements javax.rmi.CORBA.ValueHandlerMultiFormat
         if (jdkToOrbInputStreamBridge == null)
         {
 
-            jdkToOrbInputStreamBridge = createInputStream();
+            jdkToOrbInputStreamBridge = IIOPStreamPool.getInputStream(getInputStreamClassName());
+            if (jdkToOrbInputStreamBridge == null)
+                jdkToOrbInputStreamBridge = createInputStream();
             jdkToOrbInputStreamBridge.setOrbStream(in);
             jdkToOrbInputStreamBridge.setSender(sender); // d11638
             // backward compatability 4365188
@@ -315,11 +325,13 @@ public class ValueHandlerImpl implements javax.rmi.CORBA.ValueHandlerMultiFormat
         }
 
         java.io.Serializable result = null;
+        boolean completed = false;
 
         try
         {
             jdkToOrbInputStreamBridge.increaseRecursionDepth();
             result = readValueInternal(jdkToOrbInputStreamBridge, in, offset, clazz, repositoryID, sender);
+            completed = true;
         }
         finally
         {
@@ -327,6 +339,10 @@ public class ValueHandlerImpl implements javax.rmi.CORBA.ValueHandlerMultiFormat
             if (jdkToOrbInputStreamBridge.decreaseRecursionDepth() == 0)
             {
                 inputStreamPairs.remove(_in);
+
+                // Only a bridge that unwound normally is known to be back in its initial state.
+                if (completed)
+                    IIOPStreamPool.releaseInputStream(jdkToOrbInputStreamBridge);
             }
         }
 
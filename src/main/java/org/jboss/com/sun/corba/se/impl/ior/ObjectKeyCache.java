@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.ior;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jboss.com.sun.corba.se.spi.ior.ObjectKeyTemplate;
+
+/**
+ * A bounded table of the object keys parsed by one ObjectKeyFactoryImpl, matched on their encoded bytes.
+ * <p>
+ * Clients usually invoke a small set of objects over and over, so most incoming requests carry key bytes that have been
+ * parsed before. A key found in the table yields its template and object id without building a stream or running the
+ * handlers again. The table also interns the templates it holds, so the keys of all the objects of one object adapter
+ * share a single template instance.
+ * <p>
+ * Like RepositoryIdTable, the table is a fixed array probed over a few slots, where the last slot is replaced when
+ * they are all taken. Entries are immutable and published through their final fields, so no locking is needed. Object
+ * ids are mutable arrays, so the table keeps its own copies and hands out copies as well.
+ */
+final class ObjectKeyCache
+{
+    // size must be power of 2
+    private static final int SIZE = 256;
+
+    // size must be power of 2
+    private static final int TEMPLATE_SIZE = 64;
+
+    private static final int PROBES = 4;
+
+    // Longer keys are not worth keeping.
+    private static final int MAX_LENGTH = 512;
+
+    static final class Entry
+    {
+        final int hash;
+
+        final byte[] key;
+
+        final ObjectKeyTemplate oktemp;
+
+        private final byte[] id;
+
+        Entry(int hash, byte[] key, ObjectKeyTemplate oktemp, byte[] id)
+        {
+            this.hash = hash;
+            this.key = key;
+            this.oktemp = oktemp;
+            this.id = id;
+        }
+
+        /**
+         * Returns a copy of the object id of this key.
+         */
+        byte[] getId()
+        {
+            return id.clone();
+        }
+    }
+
+    private final Entry[] table = new Entry[SIZE];
+
+    // Templates have no final fields, so they are published through an AtomicReferenceArray.
+    private final AtomicReferenceArray<ObjectKeyTemplate> templates = new AtomicReferenceArray<ObjectKeyTemplate>(
+            TEMPLATE_SIZE);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the entry for key, or null if key is not in the table.
+     */
+    Entry get(byte[] key)
+    {
+        if (key.length <= MAX_LENGTH)
+        {
+            int hash = hash(key);
+            Entry[] tab = table;
+            for (int i = 0; i < PROBES; i++)
+            {
+                Entry entry = tab[(hash + i) & (SIZE - 1)];
+                if (entry != null && entry.hash == hash && Arrays.equals(entry.key, key))
+                {
+                    hits.incrementAndGet();
+                    return entry;
+                }
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Records the template and object id parsed from key, and returns the template to use for it: an equal template
+     * already in the table if there is one, or else oktemp.
+     */
+    ObjectKeyTemplate put(byte[] key, ObjectKeyTemplate oktemp, byte[] id)
+    {
+        if (key.length > MAX_LENGTH)
+            return oktemp;
+
+        int hash = hash(key);
+        Entry[] tab = table;
+
+        int slot = (hash + PROBES - 1) & (SIZE - 1);
+        for (int i = 0; i < PROBES; i++)
+        {
+            if (tab[(hash + i) & (SIZE - 1)] == null)
+            {
+                slot = (hash + i) & (SIZE - 1);
+                break;
+            }
+        }
+
+        oktemp = intern(oktemp);
+        tab[slot] = new Entry(hash, key.clone(), oktemp, id.clone());
+        return oktemp;
+    }
+
+    /**
+     * Returns the template in the table that equals oktemp, after adding oktemp if there is none.
+     */
+    private ObjectKeyTemplate intern(ObjectKeyTemplate oktemp)
+    {
+        int hash = oktemp.hashCode();
+        int slot = (hash + PROBES - 1) & (TEMPLATE_SIZE - 1);
+        for (int i = 0; i < PROBES; i++)
+        {
+            ObjectKeyTemplate template = templates.get((hash + i) & (TEMPLATE_SIZE - 1));
+            if (template == null)
+            {
+                slot = (hash + i) & (TEMPLATE_SIZE - 1);
+                break;
+            }
+
+            if (template.equals(oktemp))
+                return template;
+        }
+
+        templates.set(slot, oktemp);
+        return oktemp;
+    }
+
+    long getHits()
+    {
+        return hits.get();
+    }
+
+    long getMisses()
+    {
+        return misses.get();
+    }
+
+    private static int hash(byte[] key)
+    {
+        int h = key.length;
+        for (int i = 0; i < key.length; i++)
+            h = 31 * h + key[i];
+
+        // Spread the bits, as in CacheTable.
+        h += ~(h << 9);
+        h ^= (h >>> 14);
+        h += (h << 4);
+        h ^= (h >>> 10);
+        return h;
+    }
+}
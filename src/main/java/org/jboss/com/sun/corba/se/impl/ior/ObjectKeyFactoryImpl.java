@@ -75,6 +75,8 @@ public class ObjectKeyFactoryImpl implements ObjectKeyFactory
 
     private final ORB orb;
 
+    private final ObjectKeyCache cache = new ObjectKeyCache();
+
     public ObjectKeyFactoryImpl(ORB orb)
     {
         this.orb = orb;
@@ -212,6 +214,10 @@ public class ObjectKeyFactoryImpl implements ObjectKeyFactory
 
     public ObjectKey create(byte[] key)
     {
+        ObjectKeyCache.Entry entry = cache.get(key);
+        if (entry != null)
+            return new ObjectKeyImpl(entry.oktemp, new ObjectIdImpl(entry.getId()));
+
         OctetSeqHolder osh = new OctetSeqHolder();
         EncapsInputStream is = new EncapsInputStream(orb, key, key.length);
 
@@ -219,10 +225,28 @@ public class ObjectKeyFactoryImpl implements ObjectKeyFactory
         if (oktemp == null)
             oktemp = new WireObjectKeyTemplate(is, osh);
 
+        oktemp = cache.put(key, oktemp, osh.value);
+
         ObjectId oid = new ObjectIdImpl(osh.value);
         return new ObjectKeyImpl(oktemp, oid);
     }
 
+    /**
+     * Returns the number of calls to {@link #create(byte[])} that found their key already parsed.
+     */
+    public long getCacheHits()
+    {
+        return cache.getHits();
+    }
+
+    /**
+     * Returns the number of calls to {@link #create(byte[])} that had to parse their key.
+     */
+    public long getCacheMisses()
+    {
+        return cache.getMisses();
+    }
+
     public ObjectKeyTemplate createTemplate(InputStream is)
     {
         ObjectKeyTemplate oktemp = create(is, oktempOnly, null);
@@ -56,6 +56,12 @@ public class AOMEntry extends FSMImpl
 
     final POAImpl poa;
 
+    // The servant of this entry, and its key if the POA has the UNIQUE_ID policy. Only set by ActiveObjectMap, under
+    // the POA mutex; volatile so that they can be read without it.
+    volatile org.omg.PortableServer.Servant servant;
+
+    volatile ActiveObjectMap.Key key;
+
     public static final State INVALID = new StateImpl("Invalid");
 
     public static final State INCARN = new StateImpl("Incarnating")
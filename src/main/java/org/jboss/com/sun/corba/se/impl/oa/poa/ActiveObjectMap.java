@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.omg.PortableServer.Servant;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
@@ -36,17 +37,31 @@ import org.omg.PortableServer.POAPackage.WrongPolicy;
 /**
  * The ActiveObjectMap maintains associations between servants and their keys. There are two variants, to support
  * whether or not multiple IDs per servant are allowed. This class suppots bidirectional traversal of the key-servant
- * association. Access to an instance of this class is serialized by the POA mutex.
+ * association. Updates to an instance of this class are serialized by the POA mutex.
+ * <p>
+ * The key and servant maps are concurrent, and the servant of an entry (and in the single ID case its key) is held by
+ * the AOMEntry itself rather than in further maps, so {@link #find(Key)}, {@link #getServant(AOMEntry)},
+ * {@link #contains(Servant)} and {@link #containsKey(Key)} may be called without holding the POA mutex. This is what
+ * lets POAImpl look up servants for invocations without locking when the POA has no servant manager.
  */
 public abstract class ActiveObjectMap
 {
     public static class Key
     {
-        public byte[] id;
+        public final byte[] id;
+
+        // The hash is computed once, since the same key is hashed for every map it is looked up in.
+        private final int hash;
 
         Key(byte[] id)
         {
             this.id = id;
+
+            // Use the same hash function as for String
+            int h = 0;
+            for (int i = 0; i < id.length; i++)
+                h = 31 * h + id[i];
+            hash = h;
         }
 
         public String toString()
@@ -66,7 +81,7 @@ public abstract class ActiveObjectMap
             if (!(key instanceof Key))
                 return false;
             Key k = (Key) key;
-            if (k.id.length != this.id.length)
+            if (k.hash != this.hash || k.id.length != this.id.length)
                 return false;
             for (int i = 0; i < this.id.length; i++)
                 if (this.id[i] != k.id[i])
@@ -74,13 +89,9 @@ public abstract class ActiveObjectMap
             return true;
         }
 
-        // Use the same hash function as for String
         public int hashCode()
         {
-            int h = 0;
-            for (int i = 0; i < id.length; i++)
-                h = 31 * h + id[i];
-            return h;
+            return hash;
         }
     }
 
@@ -99,15 +110,13 @@ public abstract class ActiveObjectMap
             return new SingleObjectMap(poa);
     }
 
-    private Map<Key, AOMEntry> keyToEntry = new HashMap<Key, AOMEntry>();
-
-    private Map<AOMEntry, Servant> entryToServant = new HashMap<AOMEntry, Servant>();
+    private Map<Key, AOMEntry> keyToEntry = new ConcurrentHashMap<Key, AOMEntry>();
 
-    private Map<Servant, AOMEntry> servantToEntry = new HashMap<Servant, AOMEntry>();
+    private Map<Servant, AOMEntry> servantToEntry = new ConcurrentHashMap<Servant, AOMEntry>();
 
     public final boolean contains(Servant value)
     {
-        return servantToEntry.containsKey(value);
+        return value != null && servantToEntry.containsKey(value);
     }
 
     public final boolean containsKey(Key key)
@@ -130,16 +139,25 @@ public abstract class ActiveObjectMap
         return result;
     }
 
+    /**
+     * Returns the entry assigned to the key, or null if none is present. Unlike get, this never adds an entry, so it
+     * may be called without holding the POA mutex.
+     */
+    public final AOMEntry find(Key key)
+    {
+        return keyToEntry.get(key);
+    }
+
     public final Servant getServant(AOMEntry entry)
     {
-        return entryToServant.get(entry);
+        return (entry == null) ? null : entry.servant;
     }
 
     public abstract Key getKey(AOMEntry value) throws WrongPolicy;
 
     public Key getKey(Servant value) throws WrongPolicy
     {
-        AOMEntry entry = servantToEntry.get(value);
+        AOMEntry entry = (value == null) ? null : servantToEntry.get(value);
         return getKey(entry);
     }
 
@@ -150,7 +168,7 @@ public abstract class ActiveObjectMap
 
     public final void putServant(Servant servant, AOMEntry value)
     {
-        entryToServant.put(value, servant);
+        value.servant = servant;
         servantToEntry.put(servant, value);
     }
 
@@ -159,7 +177,12 @@ public abstract class ActiveObjectMap
     public final void remove(Key key)
     {
         AOMEntry entry = keyToEntry.remove(key);
-        Servant servant = entryToServant.remove(entry);
+        Servant servant = null;
+        if (entry != null)
+        {
+            servant = entry.servant;
+            entry.servant = null;
+        }
         if (servant != null)
             servantToEntry.remove(servant);
 
@@ -181,7 +204,7 @@ public abstract class ActiveObjectMap
 
 class SingleObjectMap extends ActiveObjectMap
 {
-    private Map<AOMEntry, Key> entryToKey = new HashMap<AOMEntry, Key>();
+    // The key of an entry is held by the entry itself.
 
     public SingleObjectMap(POAImpl poa)
     {
@@ -190,14 +213,14 @@ class SingleObjectMap extends ActiveObjectMap
 
     public Key getKey(AOMEntry value) throws WrongPolicy
     {
-        return entryToKey.get(value);
+        return (value == null) ? null : value.key;
     }
 
     protected void putEntry(Key key, AOMEntry value)
     {
         super.putEntry(key, value);
 
-        entryToKey.put(value, key);
+        value.key = key;
     }
 
     public boolean hasMultipleIDs(AOMEntry value)
@@ -208,13 +231,8 @@ class SingleObjectMap extends ActiveObjectMap
     // This case does not need the key.
     protected void removeEntry(AOMEntry entry, Key key)
     {
-        entryToKey.remove(entry);
-    }
-
-    public void clear()
-    {
-        super.clear();
-        entryToKey.clear();
+        if (entry != null)
+            entry.key = null;
     }
 }
 
@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.com.sun.corba.se.impl.ior.ObjectAdapterIdArray;
 import org.jboss.com.sun.corba.se.impl.ior.POAObjectKeyTemplate;
@@ -177,8 +178,8 @@ public class POAImpl extends ObjectAdapterBase implements POA
         }
     }
 
-    // Current state of the POA
-    private int state;
+    // Current state of the POA. Volatile so that enter can check for STATE_RUN without taking the poaMutex.
+    private volatile int state;
 
     // The POA request handler that performs all policy specific operations Note that POAImpl handles all
     // synchronization, so mediator is (mostly) unsynchronized.
@@ -204,7 +205,9 @@ public class POAImpl extends ObjectAdapterBase implements POA
 
     private AdapterActivator activator;
 
-    private int invocationCount; // pending invocations on this POA.
+    // pending invocations on this POA. Atomic so that enter and exit can update it without taking the poaMutex while
+    // the POA is running; see enter.
+    private final AtomicInteger invocationCount = new AtomicInteger();
 
     // Data used to control POA concurrency
     // XXX revisit for JSR 166
@@ -338,7 +341,6 @@ public class POAImpl extends ObjectAdapterBase implements POA
 
         poaId = new ObjectAdapterIdArray(names);
 
-        invocationCount = 0;
 
         poaMutex = new ReentrantMutex(orb.poaConcurrencyDebugFlag);
 
@@ -677,7 +679,7 @@ public class POAImpl extends ObjectAdapterBase implements POA
 
             try
             {
-                while (poa.invocationCount != 0)
+                while (poa.invocationCount.get() != 0)
                 {
                     try
                     {
@@ -1590,6 +1592,21 @@ public class POAImpl extends ObjectAdapterBase implements POA
 
     public void enter() throws OADestroyed
     {
+        // Fast path for a running POA. The count is incremented before the state is checked again, and
+        // prepareForDestruction sets the state before completeDestruction checks the count, so either this thread sees
+        // the state change and backs out, or the destroying thread sees the invocation and waits for its exit.
+        if (!debug && state == STATE_RUN)
+        {
+            invocationCount.incrementAndGet();
+            if (state == STATE_RUN)
+            {
+                manager.enter();
+                return;
+            }
+
+            decrementInvocationCount();
+        }
+
         try
         {
             lock();
@@ -1617,7 +1634,7 @@ public class POAImpl extends ObjectAdapterBase implements POA
             if (!waitUntilRunning())
                 throw new OADestroyed();
 
-            invocationCount++;
+            invocationCount.incrementAndGet();
         }
         finally
         {
@@ -1634,37 +1651,58 @@ public class POAImpl extends ObjectAdapterBase implements POA
 
     public void exit()
     {
-        try
+        if (debug)
         {
-            lock();
+            ORBUtility.dprint(this, "Calling exit on poa " + this);
+        }
 
-            if (debug)
-            {
-                ORBUtility.dprint(this, "Calling exit on poa " + this);
-            }
+        decrementInvocationCount();
 
-            invocationCount--;
+        if (debug)
+        {
+            ORBUtility.dprint(this, "Exiting exit on poa " + this);
+        }
 
-            if ((invocationCount == 0) && (state == STATE_DESTROYING))
+        manager.exit();
+    }
+
+    // Wakes up completeDestruction when the last pending invocation of a POA being destroyed leaves. The mutex is only
+    // taken in that case; since completeDestruction holds it from checking the count until it waits, the broadcast
+    // cannot be lost.
+    private void decrementInvocationCount()
+    {
+        if (invocationCount.decrementAndGet() == 0 && state == STATE_DESTROYING)
+        {
+            try
             {
+                lock();
+
                 invokeCV.broadcast();
             }
-        }
-        finally
-        {
-            if (debug)
+            finally
             {
-                ORBUtility.dprint(this, "Exiting exit on poa " + this);
+                unlock();
             }
-
-            unlock();
         }
-
-        manager.exit();
     }
 
     public void getInvocationServant(OAInvocationInfo info)
     {
+        // Without a servant manager the lookup only reads the active object map or the default servant, both of which
+        // are safe to read without the mutex.
+        if (!debug && !mediator.getPolicies().useServantManager())
+        {
+            try
+            {
+                info.setServant(mediator.getInvocationServant(info.id(), info.getOperation()));
+            }
+            catch (ForwardRequest freq)
+            {
+                throw new ForwardException(getORB(), freq.forward_reference);
+            }
+            return;
+        }
+
         try
         {
             lock();
@@ -1710,6 +1748,10 @@ public class POAImpl extends ObjectAdapterBase implements POA
      */
     public void returnServant()
     {
+        // Without a servant manager there is nothing to return, so don't take the mutex.
+        if (!debug && !mediator.getPolicies().useServantManager())
+            return;
+
         try
         {
             lock();
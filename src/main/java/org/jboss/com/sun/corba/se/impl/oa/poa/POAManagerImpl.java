@@ -28,6 +28,7 @@ package org.jboss.com.sun.corba.se.impl.oa.poa;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.com.sun.corba.se.impl.logging.POASystemException;
 import org.jboss.com.sun.corba.se.impl.orbutil.ORBUtility;
@@ -55,11 +56,11 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
 
     private PIHandler pihandler; // for adapterManagerStateChanged
 
-    private State state; // current state of this POAManager
+    private volatile State state; // current state of this POAManager; volatile for the fast path in enter()
 
     private Set<POA> poas = new HashSet<POA>(4); // all poas controlled by this POAManager
 
-    private int nInvocations = 0; // Number of invocations in progress
+    private final AtomicInteger nInvocations = new AtomicInteger(); // Number of invocations in progress
 
     private int nWaiters = 0; // Number of threads waiting for invocations to complete
 
@@ -277,7 +278,7 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
 
             if (wait_for_completion)
             {
-                while (state.value() == State._HOLDING && nInvocations > 0)
+                while (state.value() == State._HOLDING && nInvocations.get() > 0)
                 {
                     countedWait();
                 }
@@ -322,7 +323,7 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
 
             if (wait_for_completion)
             {
-                while (state.value() == State._DISCARDING && nInvocations > 0)
+                while (state.value() == State._DISCARDING && nInvocations.get() > 0)
                 {
                     countedWait();
                 }
@@ -417,7 +418,7 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
                                 + pmi);
                     }
 
-                    while (pmi.nInvocations > 0)
+                    while (pmi.nInvocations.get() > 0)
                     {
                         countedWait();
                     }
@@ -525,7 +526,24 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
         }
     }
 
-    synchronized void enter()
+    void enter()
+    {
+        // Fast path for an active POAManager. As in POAImpl.enter, the count is incremented before the state is checked
+        // again, and hold_requests, discard_requests and deactivate change the state before they check the count, so
+        // either this thread backs out or they wait for this invocation to exit.
+        if (!debug && state.value() == State._ACTIVE)
+        {
+            nInvocations.incrementAndGet();
+            if (state.value() == State._ACTIVE)
+                return;
+
+            exit();
+        }
+
+        enterSlow();
+    }
+
+    private synchronized void enterSlow()
     {
         try
         {
@@ -535,7 +553,7 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
             }
 
             checkState();
-            nInvocations++;
+            nInvocations.incrementAndGet();
         }
         finally
         {
@@ -546,28 +564,27 @@ public class POAManagerImpl extends org.omg.CORBA.LocalObject implements POAMana
         }
     }
 
-    synchronized void exit()
+    void exit()
     {
-        try
+        // Only the last invocation to leave needs the lock. Threads in the wait_for_completion loops check the count
+        // and wait while holding it, so taking it here before notifying cannot miss one of them.
+        if (nInvocations.decrementAndGet() == 0 || debug)
         {
-            if (debug)
+            synchronized (this)
             {
-                ORBUtility.dprint(this, "Calling exit for POAManagerImpl " + this);
-            }
-
-            nInvocations--;
+                if (debug)
+                {
+                    ORBUtility.dprint(this, "Calling exit for POAManagerImpl " + this);
+                }
 
-            if (nInvocations == 0)
-            {
                 // This notifies any threads that were in the wait_for_completion loop in hold/discard/deactivate().
-                notifyWaiters();
-            }
-        }
-        finally
-        {
-            if (debug)
-            {
-                ORBUtility.dprint(this, "Exiting exit for POAManagerImpl " + this);
+                if (nInvocations.get() == 0)
+                    notifyWaiters();
+
+                if (debug)
+                {
+                    ORBUtility.dprint(this, "Exiting exit for POAManagerImpl " + this);
+                }
             }
         }
     }
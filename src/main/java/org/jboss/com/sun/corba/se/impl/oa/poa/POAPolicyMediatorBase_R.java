@@ -60,9 +60,10 @@ public abstract class POAPolicyMediatorBase_R extends POAPolicyMediatorBase
         activeObjectMap = null;
     }
 
+    // Only reads the active object map, so this may be called without holding the POA mutex.
     protected Servant internalKeyToServant(ActiveObjectMap.Key key)
     {
-        AOMEntry entry = activeObjectMap.get(key);
+        AOMEntry entry = activeObjectMap.find(key);
         if (entry == null)
             return null;
 
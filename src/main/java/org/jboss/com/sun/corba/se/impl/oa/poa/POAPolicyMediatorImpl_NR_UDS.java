@@ -40,7 +40,8 @@ import org.omg.PortableServer.POAPackage.WrongPolicy;
  */
 public class POAPolicyMediatorImpl_NR_UDS extends POAPolicyMediatorBase
 {
-    private Servant defaultServant;
+    // volatile so that POAImpl can look it up without holding the POA mutex
+    private volatile Servant defaultServant;
 
     POAPolicyMediatorImpl_NR_UDS(Policies policies, POAImpl poa)
     {
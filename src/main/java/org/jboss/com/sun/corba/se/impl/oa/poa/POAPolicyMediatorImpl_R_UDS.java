@@ -37,7 +37,8 @@ import org.omg.PortableServer.POAPackage.WrongPolicy;
  */
 public class POAPolicyMediatorImpl_R_UDS extends POAPolicyMediatorBase_R
 {
-    private Servant defaultServant;
+    // volatile so that POAImpl can look it up without holding the POA mutex
+    private volatile Servant defaultServant;
 
     POAPolicyMediatorImpl_R_UDS(Policies policies, POAImpl poa)
     {
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.orbutil;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent cache of values computed per Class that does not keep the classes from being unloaded.
+ * <p>
+ * Classes are held weakly and compared by identity, and by default values are held softly, since a value usually
+ * refers back to its class and would otherwise keep it reachable through the map. Values that do not refer to their
+ * class, such as strings computed from it, can be held strongly instead, so that they are not dropped and recomputed
+ * under memory pressure. The entries of collected classes are purged on later calls. Lookups take no lock; two threads
+ * that miss at the same time may both compute a value, but {@link #putIfAbsent(Class, Object)} makes them agree on
+ * one.
+ */
+public final class ClassCache<V>
+{
+    // Maps each class to its value, or to a SoftReference to it if softValues is true.
+    private final ConcurrentMap<ClassKey, Object> map = new ConcurrentHashMap<ClassKey, Object>();
+
+    private final boolean softValues;
+
+    private final ReferenceQueue<Class<?>> staleKeys = new ReferenceQueue<Class<?>>();
+
+    /**
+     * Creates a cache that holds its values softly.
+     */
+    public ClassCache()
+    {
+        this(true);
+    }
+
+    /**
+     * Creates a cache that holds its values softly if softValues is true, and strongly otherwise. Strongly held values
+     * must not refer to their class, or the class can never be unloaded.
+     */
+    public ClassCache(boolean softValues)
+    {
+        this.softValues = softValues;
+    }
+
+    /**
+     * Returns the value cached for cls, or null if there is none.
+     */
+    public V get(Class<?> cls)
+    {
+        processStaleKeys();
+
+        return valueOf(map.get(new ClassKey(cls, null)));
+    }
+
+    /**
+     * Caches value for cls unless another value is already cached. Returns the value now in the cache.
+     */
+    public V putIfAbsent(Class<?> cls, V value)
+    {
+        ClassKey key = new ClassKey(cls, staleKeys);
+        Object ref = softValues ? new SoftReference<V>(value) : value;
+
+        for (;;)
+        {
+            Object old = map.putIfAbsent(key, ref);
+            if (old == null)
+                return value;
+
+            V oldValue = valueOf(old);
+            if (oldValue != null)
+                return oldValue;
+
+            // The old value was collected, so replace it.
+            if (map.replace(key, old, ref))
+                return value;
+        }
+    }
+
+    public void clear()
+    {
+        map.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueOf(Object ref)
+    {
+        if (ref == null)
+            return null;
+
+        return softValues ? ((SoftReference<V>) ref).get() : (V) ref;
+    }
+
+    private void processStaleKeys()
+    {
+        Reference<? extends Class<?>> ref;
+        while ((ref = staleKeys.poll()) != null)
+            map.remove(ref);
+    }
+
+    private static class ClassKey extends WeakReference<Class<?>>
+    {
+        private final int hash;
+
+        ClassKey(Class<?> cls, ReferenceQueue<Class<?>> queue)
+        {
+            super(cls, queue);
+            hash = System.identityHashCode(cls);
+        }
+
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        public boolean equals(Object obj)
+        {
+            if (obj == this)
+                return true;
+
+            if (obj instanceof ClassKey)
+            {
+                Object referent = get();
+                return (referent != null) && (referent == ((ClassKey) obj).get());
+            }
+
+            return false;
+        }
+    }
+}
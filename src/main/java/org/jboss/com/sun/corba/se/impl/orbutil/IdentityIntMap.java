@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.orbutil;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map from object identity to a non-negative int, used by CDROutputStream_1_0 to remember the
+ * stream offsets of the values, repository IDs and codebases it has already written.
+ * <p>
+ * Unlike CacheTable there are no entry objects: keys and values live in two parallel arrays probed linearly. Instances
+ * are not thread safe. They are meant to be taken from a per-thread pool with {@link #acquire()} and handed back with
+ * {@link #release(IdentityIntMap)} once the stream is done, so that the arrays are reused across messages.
+ */
+public final class IdentityIntMap
+{
+    // size must be power of 2
+    private static final int INITIAL_SIZE = 16;
+
+    private static final int MAX_SIZE = 1 << 30;
+
+    // Tables that grew beyond this size are not kept when the map is cleared, so that one very large message does not
+    // pin its tables in the pool.
+    private static final int MAX_RETAINED_SIZE = 1 << 12;
+
+    // Number of released maps kept per thread. A stream uses at most three.
+    private static final int POOL_SIZE = 4;
+
+    private static final ThreadLocal<IdentityIntMap[]> pool = new ThreadLocal<IdentityIntMap[]>()
+    {
+        protected IdentityIntMap[] initialValue()
+        {
+            return new IdentityIntMap[POOL_SIZE];
+        }
+    };
+
+    private Object[] keys;
+
+    private int[] vals;
+
+    private int entryCount;
+
+    public IdentityIntMap()
+    {
+        initTables(INITIAL_SIZE);
+    }
+
+    /**
+     * Returns an empty map from the calling thread's pool, or a new one if the pool is empty.
+     */
+    public static IdentityIntMap acquire()
+    {
+        IdentityIntMap[] maps = pool.get();
+        for (int i = 0; i < maps.length; i++)
+        {
+            IdentityIntMap map = maps[i];
+            if (map != null)
+            {
+                maps[i] = null;
+                return map;
+            }
+        }
+        return new IdentityIntMap();
+    }
+
+    /**
+     * Clears the map and returns it to the calling thread's pool. The map must not be used afterwards.
+     */
+    public static void release(IdentityIntMap map)
+    {
+        map.clear();
+        IdentityIntMap[] maps = pool.get();
+        for (int i = 0; i < maps.length; i++)
+        {
+            if (maps[i] == null)
+            {
+                maps[i] = map;
+                return;
+            }
+        }
+    }
+
+    private void initTables(int size)
+    {
+        keys = new Object[size];
+        vals = new int[size];
+    }
+
+    private int index(Object key)
+    {
+        // these are the "supplemental hash function" copied from
+        // java.util.HashMap, supposed to be "critical"
+        int h = System.identityHashCode(key);
+        h += ~(h << 9);
+        h ^= (h >>> 14);
+        h += (h << 4);
+        h ^= (h >>> 10);
+        return h & (keys.length - 1);
+    }
+
+    /**
+     * Returns the value mapped to key, or -1 if there is none.
+     */
+    public int get(Object key)
+    {
+        int mask = keys.length - 1;
+        for (int i = index(key);; i = (i + 1) & mask)
+        {
+            Object k = keys[i];
+            if (k == key)
+                return vals[i];
+            if (k == null)
+                return -1;
+        }
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return get(key) != -1;
+    }
+
+    /**
+     * Maps key to val unless key is already present. Returns the value already mapped to key, or -1 if the mapping was
+     * added.
+     */
+    public int put(Object key, int val)
+    {
+        int mask = keys.length - 1;
+        int i = index(key);
+        for (Object k = keys[i]; k != null; k = keys[i])
+        {
+            if (k == key)
+                return vals[i];
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        vals[i] = val;
+
+        // Keep the load factor at 1/2 so that probe sequences stay short.
+        if (++entryCount > keys.length >> 1)
+            grow();
+
+        return -1;
+    }
+
+    public int size()
+    {
+        return entryCount;
+    }
+
+    public void clear()
+    {
+        if (keys.length > MAX_RETAINED_SIZE)
+            initTables(INITIAL_SIZE);
+        else if (entryCount > 0)
+            Arrays.fill(keys, null);
+        entryCount = 0;
+    }
+
+    private void grow()
+    {
+        if (keys.length == MAX_SIZE)
+            return;
+
+        Object[] oldKeys = keys;
+        int[] oldVals = vals;
+        initTables(oldKeys.length << 1);
+
+        // now rehash the entries into the new table
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            Object key = oldKeys[j];
+            if (key != null)
+            {
+                int i = index(key);
+                while (keys[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = key;
+                vals[i] = oldVals[j];
+            }
+        }
+    }
+}
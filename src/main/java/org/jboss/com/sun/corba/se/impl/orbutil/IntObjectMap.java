@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.orbutil;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map from int to object, used by CDRInputStream_1_0 to resolve indirections to the values,
+ * repository IDs and codebases read earlier from the same stream, keyed by their stream offset.
+ * <p>
+ * Unlike CacheTable there are no entry objects and no boxing: keys and values live in two parallel arrays probed
+ * linearly, and an empty slot is one with a null value. Null values are therefore never stored, which matches
+ * CacheTable where a null key could not be found by value either. Instances are not thread safe. They are meant to be
+ * taken from a per-thread pool with {@link #acquire()} and handed back with {@link #release(IntObjectMap)} once the
+ * stream is done, so that the arrays are reused across messages.
+ */
+public final class IntObjectMap
+{
+    // size must be power of 2
+    private static final int INITIAL_SIZE = 16;
+
+    private static final int MAX_SIZE = 1 << 30;
+
+    // Tables that grew beyond this size are not kept when the map is cleared, so that one very large message does not
+    // pin its tables in the pool.
+    private static final int MAX_RETAINED_SIZE = 1 << 12;
+
+    // Number of released maps kept per thread. A stream uses at most three.
+    private static final int POOL_SIZE = 4;
+
+    private static final ThreadLocal<IntObjectMap[]> pool = new ThreadLocal<IntObjectMap[]>()
+    {
+        protected IntObjectMap[] initialValue()
+        {
+            return new IntObjectMap[POOL_SIZE];
+        }
+    };
+
+    private int[] keys;
+
+    private Object[] vals;
+
+    private int entryCount;
+
+    public IntObjectMap()
+    {
+        initTables(INITIAL_SIZE);
+    }
+
+    /**
+     * Returns an empty map from the calling thread's pool, or a new one if the pool is empty.
+     */
+    public static IntObjectMap acquire()
+    {
+        IntObjectMap[] maps = pool.get();
+        for (int i = 0; i < maps.length; i++)
+        {
+            IntObjectMap map = maps[i];
+            if (map != null)
+            {
+                maps[i] = null;
+                return map;
+            }
+        }
+        return new IntObjectMap();
+    }
+
+    /**
+     * Clears the map and returns it to the calling thread's pool. The map must not be used afterwards.
+     */
+    public static void release(IntObjectMap map)
+    {
+        map.clear();
+        IntObjectMap[] maps = pool.get();
+        for (int i = 0; i < maps.length; i++)
+        {
+            if (maps[i] == null)
+            {
+                maps[i] = map;
+                return;
+            }
+        }
+    }
+
+    private void initTables(int size)
+    {
+        keys = new int[size];
+        vals = new Object[size];
+    }
+
+    private int index(int key)
+    {
+        // these are the "supplemental hash function" copied from
+        // java.util.HashMap, supposed to be "critical"
+        int h = key;
+        h += ~(h << 9);
+        h ^= (h >>> 14);
+        h += (h << 4);
+        h ^= (h >>> 10);
+        return h & (keys.length - 1);
+    }
+
+    /**
+     * Returns the value mapped to key, or null if there is none.
+     */
+    public Object get(int key)
+    {
+        int mask = keys.length - 1;
+        for (int i = index(key);; i = (i + 1) & mask)
+        {
+            Object v = vals[i];
+            if (v == null || keys[i] == key)
+                return v;
+        }
+    }
+
+    public boolean containsKey(int key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps key to val, replacing any previous mapping for key. A null val is ignored.
+     */
+    public void put(int key, Object val)
+    {
+        if (val == null)
+            return;
+
+        int mask = keys.length - 1;
+        int i = index(key);
+        for (Object v = vals[i]; v != null; v = vals[i])
+        {
+            if (keys[i] == key)
+            {
+                vals[i] = val;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        vals[i] = val;
+
+        // Keep the load factor at 1/2 so that probe sequences stay short.
+        if (++entryCount > keys.length >> 1)
+            grow();
+    }
+
+    public int size()
+    {
+        return entryCount;
+    }
+
+    public void clear()
+    {
+        if (keys.length > MAX_RETAINED_SIZE)
+            initTables(INITIAL_SIZE);
+        else if (entryCount > 0)
+            Arrays.fill(vals, null);
+        entryCount = 0;
+    }
+
+    private void grow()
+    {
+        if (keys.length == MAX_SIZE)
+            return;
+
+        int[] oldKeys = keys;
+        Object[] oldVals = vals;
+        initTables(oldKeys.length << 1);
+
+        // now rehash the entries into the new table
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            Object val = oldVals[j];
+            if (val != null)
+            {
+                int i = index(oldKeys[j]);
+                while (vals[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                vals[i] = val;
+            }
+        }
+    }
+}
@@ -293,6 +293,22 @@ public class ORBConstants
     public static final String DISABLE_DIRECT_BYTE_BUFFER_USE_PROPERTY = SUN_PREFIX
             + "transport.ORBDisableDirectByteBufferUse";
 
+    // Name of the ByteBufferPool implementation used by the ORB. The class must have a public constructor taking the
+    // ORB. ByteBufferPoolImpl is used if this is not set.
+    public static final String BYTE_BUFFER_POOL_CLASS_PROPERTY = SUN_PREFIX + "transport.ORBByteBufferPoolClass";
+
+    // Number of power of two size classes, starting at the GIOP fragment size, pooled by StripedByteBufferPoolImpl.
+    public static final String BYTE_BUFFER_POOL_SIZE_CLASSES_PROPERTY = SUN_PREFIX
+            + "transport.ORBByteBufferPoolSizeClasses";
+
+    // Maximum total capacity, in bytes, of the direct buffers retained by StripedByteBufferPoolImpl.
+    public static final String BYTE_BUFFER_POOL_MAX_RETAINED_PROPERTY = SUN_PREFIX
+            + "transport.ORBByteBufferPoolMaxRetainedSize";
+
+    public static final int DEFAULT_BYTE_BUFFER_POOL_SIZE_CLASSES = 11;
+
+    public static final long DEFAULT_BYTE_BUFFER_POOL_MAX_RETAINED = 64L * 1024 * 1024;
+
     public static final String SOCKET = "Socket";
 
     public static final String SOCKETCHANNEL = "SocketChannel";
@@ -331,6 +347,15 @@ public class ORBConstants
 
     public static final String DYNAMIC_STUB_FACTORY_FACTORY_CLASS = SUN_PREFIX + "ORBDynamicStubFactoryFactoryClass";
 
+    // Comma separated names of additional final classes whose instances are immutable, so that colocated RMI-IIOP
+    // calls pass arguments and results of these types without copying them.
+    public static final String IMMUTABLE_CLASSES_PROPERTY = SUN_PREFIX + "ORBImmutableClasses";
+
+    // Name of the thread pool that runs deferred DII requests while they wait for their replies. Should name a pool
+    // other than the one that reads and dispatches messages, so that the waiting requests cannot take all of its
+    // threads. If it is not set, every deferred request runs on a thread of its own.
+    public static final String DEFERRED_REQUEST_THREADPOOL_PROPERTY = SUN_PREFIX + "ORBDeferredRequestThreadPool";
+
     // Constants for NameService properties ************************************
 
     public static final int DEFAULT_INITIAL_PORT = 900;
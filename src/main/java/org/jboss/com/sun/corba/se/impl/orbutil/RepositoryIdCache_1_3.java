@@ -32,8 +32,8 @@
 package org.jboss.com.sun.corba.se.impl.orbutil;
 
 import java.util.EmptyStackException;
-import java.util.Hashtable;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 // Really limited pool - in this case just creating several at a time...
 @SuppressWarnings("unused")
@@ -85,7 +85,7 @@ class RepositoryIdPool_1_3 extends Stack<RepositoryId_1_3>
 
 }
 
-public class RepositoryIdCache_1_3 extends Hashtable<String, RepositoryId_1_3>
+public class RepositoryIdCache_1_3 extends ConcurrentHashMap<String, RepositoryId_1_3>
 {
 
     private static final long serialVersionUID = -1165177831273338156L;
@@ -97,7 +97,7 @@ public class RepositoryIdCache_1_3 extends Hashtable<String, RepositoryId_1_3>
         pool.setCaches(this);
     }
 
-    public final synchronized RepositoryId_1_3 getId(String key)
+    public final RepositoryId_1_3 getId(String key)
     {
         RepositoryId_1_3 repId = super.get(key);
 
@@ -107,8 +107,10 @@ public class RepositoryIdCache_1_3 extends Hashtable<String, RepositoryId_1_3>
         {
             // repId = pool.popId().init(key);
             repId = new RepositoryId_1_3(key);
-            put(key, repId);
-            return repId;
+
+            // Another thread may have added an id for key in the meantime; if so, use that one.
+            RepositoryId_1_3 existing = putIfAbsent(key, repId);
+            return (existing != null) ? existing : repId;
         }
 
     }
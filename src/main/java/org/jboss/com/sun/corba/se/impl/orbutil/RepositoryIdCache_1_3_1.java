@@ -26,8 +26,8 @@
 package org.jboss.com.sun.corba.se.impl.orbutil;
 
 import java.util.EmptyStackException;
-import java.util.Hashtable;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 // Really limited pool - in this case just creating several at a time...
 @SuppressWarnings("unused")
@@ -79,7 +79,7 @@ class RepositoryIdPool_1_3_1 extends Stack<RepositoryId_1_3_1>
 
 }
 
-public class RepositoryIdCache_1_3_1 extends Hashtable<String, RepositoryId_1_3_1>
+public class RepositoryIdCache_1_3_1 extends ConcurrentHashMap<String, RepositoryId_1_3_1>
 {
 
     private static final long serialVersionUID = -3274465091318937121L;
@@ -91,7 +91,7 @@ public class RepositoryIdCache_1_3_1 extends Hashtable<String, RepositoryId_1_3_
         pool.setCaches(this);
     }
 
-    public final synchronized RepositoryId_1_3_1 getId(String key)
+    public final RepositoryId_1_3_1 getId(String key)
     {
         RepositoryId_1_3_1 repId = super.get(key);
 
@@ -101,8 +101,10 @@ public class RepositoryIdCache_1_3_1 extends Hashtable<String, RepositoryId_1_3_
         {
             // repId = pool.popId().init(key);
             repId = new RepositoryId_1_3_1(key);
-            put(key, repId);
-            return repId;
+
+            // Another thread may have added an id for key in the meantime; if so, use that one.
+            RepositoryId_1_3_1 existing = putIfAbsent(key, repId);
+            return (existing != null) ? existing : repId;
         }
 
     }
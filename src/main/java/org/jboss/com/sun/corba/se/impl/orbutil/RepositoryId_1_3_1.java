@@ -28,13 +28,17 @@
 package org.jboss.com.sun.corba.se.impl.orbutil;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.rmi.CORBA.Util;
 
-import org.jboss.com.sun.corba.se.impl.util.IdentityHashtable;
 import org.jboss.com.sun.corba.se.impl.util.JDKBridge;
 import org.jboss.com.sun.corba.se.impl.util.PackagePrefixChecker;
 import org.jboss.com.sun.corba.se.impl.util.Utility;
@@ -85,15 +89,44 @@ public class RepositoryId_1_3_1
             defaultServerURL = JDKBridge.getLocalCodebase();
     }
 
-    private static IdentityHashtable classToRepStr = new IdentityHashtable();
+    // The repository IDs computed for each class. The classes are held weakly, so that they can be unloaded.
+    private static final ClassCache<String> classToRepStr = new ClassCache<String>(false);
 
-    private static IdentityHashtable classIDLToRepStr = new IdentityHashtable();
+    private static final ClassCache<String> classIDLToRepStr = new ClassCache<String>(false);
 
-    private static IdentityHashtable classSeqToRepStr = new IdentityHashtable();
+    private static final ClassCache<String> classSeqToRepStr = new ClassCache<String>(false);
 
-    private static IdentityHashtable repStrToByteArray = new IdentityHashtable();
+    private static final ConcurrentMap<String, byte[]> repStrToByteArray = new ConcurrentHashMap<String, byte[]>();
 
-    private static Hashtable<String, Class<?>> repStrToClass = new Hashtable<String, Class<?>>();
+    // The classes are held weakly here too; a collected class is simply no longer found, and its entry is removed
+    // through staleRepStrClasses.
+    private static final ConcurrentMap<String, RepStrClassRef> repStrToClass =
+            new ConcurrentHashMap<String, RepStrClassRef>();
+
+    private static final ReferenceQueue<Class<?>> staleRepStrClasses = new ReferenceQueue<Class<?>>();
+
+    private static final class RepStrClassRef extends WeakReference<Class<?>>
+    {
+        final String repId;
+
+        RepStrClassRef(String repId, Class<?> cls)
+        {
+            super(cls, staleRepStrClasses);
+            this.repId = repId;
+        }
+    }
+
+    private static void putRepStrClass(String repId, Class<?> cls)
+    {
+        Reference<? extends Class<?>> ref;
+        while ((ref = staleRepStrClasses.poll()) != null)
+        {
+            RepStrClassRef stale = (RepStrClassRef) ref;
+            repStrToClass.remove(stale.repId, stale);
+        }
+
+        repStrToClass.put(repId, new RepStrClassRef(repId, cls));
+    }
 
     private String repId = null;
 
@@ -510,18 +543,12 @@ public class RepositoryId_1_3_1
 
     public static byte[] getByteArray(String repStr)
     {
-        synchronized (repStrToByteArray)
-        {
-            return (byte[]) repStrToByteArray.get(repStr);
-        }
+        return repStrToByteArray.get(repStr);
     }
 
     public static void setByteArray(String repStr, byte[] repStrBytes)
     {
-        synchronized (repStrToByteArray)
-        {
-            repStrToByteArray.put(repStr, repStrBytes);
-        }
+        repStrToByteArray.put(repStr, repStrBytes);
     }
 
     public final boolean isSequence()
@@ -558,11 +585,14 @@ public class RepositoryId_1_3_1
         }
         catch (ClassNotFoundException cnfe)
         {
-            Class<?> clz = repStrToClass.get(repId);
+            RepStrClassRef ref = repStrToClass.get(repId);
+            Class<?> clz = (ref == null) ? null : ref.get();
             if (clz != null)
                 return clz;
-            else
-                throw cnfe;
+
+            if (ref != null)
+                repStrToClass.remove(repId, ref);
+            throw cnfe;
         }
     }
 
@@ -652,14 +682,8 @@ public class RepositoryId_1_3_1
         RepositoryId_1_3_1 targetRepid;
         RepositoryId_1_3_1 clazzRepid;
 
-        synchronized (cache)
-        {
-            // to avoid race condition where multiple threads could be accessing this method, and their access to the
-            // cache may be interleaved giving unexpected results
-
-            targetRepid = cache.getId(repositoryID);
-            clazzRepid = cache.getId(clazzRepIDStr);
-        }
+        targetRepid = cache.getId(repositoryID);
+        clazzRepid = cache.getId(clazzRepIDStr);
         // ObjectStreamClass osc = ObjectStreamClass.lookup(clazz);
 
         if ((targetRepid.isRMIValueType()) && (clazzRepid.isRMIValueType()))
@@ -746,43 +770,38 @@ public class RepositoryId_1_3_1
      **/
     public static String createSequenceRepID(Class<?> clazz)
     {
-        synchronized (classSeqToRepStr)
-        {
-
-            String repid = (String) classSeqToRepStr.get(clazz);
-            if (repid != null)
-                return repid;
+        String repid = classSeqToRepStr.get(clazz);
+        if (repid != null)
+            return repid;
 
-            Class<?> originalClazz = clazz;
+        Class<?> originalClazz = clazz;
 
-            Class<?> type = null;
-            int numOfDims = 0;
+        Class<?> type = null;
+        int numOfDims = 0;
 
-            while ((type = clazz.getComponentType()) != null)
-            {
-                numOfDims++;
-                clazz = type;
-            }
+        while ((type = clazz.getComponentType()) != null)
+        {
+            numOfDims++;
+            clazz = type;
+        }
 
-            if (clazz.isPrimitive())
-                repid = kValuePrefix + originalClazz.getName() + kPrimitiveSequenceValueHash;
-            else
+        if (clazz.isPrimitive())
+            repid = kValuePrefix + originalClazz.getName() + kPrimitiveSequenceValueHash;
+        else
+        {
+            StringBuffer buf = new StringBuffer();
+            buf.append(kValuePrefix);
+            while (numOfDims-- > 0)
             {
-                StringBuffer buf = new StringBuffer();
-                buf.append(kValuePrefix);
-                while (numOfDims-- > 0)
-                {
-                    buf.append("[");
-                }
-                buf.append("L");
-                buf.append(convertToISOLatin1(clazz.getName()));
-                buf.append(";");
-                buf.append(createHashString(clazz));
-                repid = buf.toString();
+                buf.append("[");
             }
-            classSeqToRepStr.put(originalClazz, repid);
-            return repid;
+            buf.append("L");
+            buf.append(convertToISOLatin1(clazz.getName()));
+            buf.append(";");
+            buf.append(createHashString(clazz));
+            repid = buf.toString();
         }
+        return classSeqToRepStr.putIfAbsent(originalClazz, repid);
 
     }
 
@@ -821,23 +840,20 @@ public class RepositoryId_1_3_1
     public static String createForJavaType(java.io.Serializable ser)
             throws org.jboss.com.sun.corba.se.impl.io.TypeMismatchException
     {
-        synchronized (classToRepStr)
-        {
-            String repid = createForSpecialCase(ser);
-            if (repid != null)
-                return repid;
-            Class<?> clazz = ser.getClass();
-            repid = (String) classToRepStr.get(clazz);
+        String repid = createForSpecialCase(ser);
+        if (repid != null)
+            return repid;
+        Class<?> clazz = ser.getClass();
+        repid = classToRepStr.get(clazz);
 
-            if (repid != null)
-                return repid;
+        if (repid != null)
+            return repid;
 
-            repid = kValuePrefix + convertToISOLatin1(clazz.getName()) + createHashString(clazz);
+        repid = kValuePrefix + convertToISOLatin1(clazz.getName()) + createHashString(clazz);
 
-            classToRepStr.put(clazz, repid);
-            repStrToClass.put(repid, clazz);
-            return repid;
-        }
+        repid = classToRepStr.putIfAbsent(clazz, repid);
+        putRepStrClass(repid, clazz);
+        return repid;
     }
 
     /**
@@ -852,22 +868,19 @@ public class RepositoryId_1_3_1
     public static String createForJavaType(Class<?> clz)
             throws org.jboss.com.sun.corba.se.impl.io.TypeMismatchException
     {
-        synchronized (classToRepStr)
-        {
-            String repid = createForSpecialCase(clz);
-            if (repid != null)
-                return repid;
+        String repid = createForSpecialCase(clz);
+        if (repid != null)
+            return repid;
 
-            repid = (String) classToRepStr.get(clz);
-            if (repid != null)
-                return repid;
+        repid = classToRepStr.get(clz);
+        if (repid != null)
+            return repid;
 
-            repid = kValuePrefix + convertToISOLatin1(clz.getName()) + createHashString(clz);
+        repid = kValuePrefix + convertToISOLatin1(clz.getName()) + createHashString(clz);
 
-            classToRepStr.put(clz, repid);
-            repStrToClass.put(repid, clz);
-            return repid;
-        }
+        repid = classToRepStr.putIfAbsent(clz, repid);
+        putRepStrClass(repid, clz);
+        return repid;
     }
 
     /**
@@ -886,16 +899,12 @@ public class RepositoryId_1_3_1
     public static String createForIDLType(Class<?> ser, int major, int minor)
             throws org.jboss.com.sun.corba.se.impl.io.TypeMismatchException
     {
-        synchronized (classIDLToRepStr)
-        {
-            String repid = (String) classIDLToRepStr.get(ser);
-            if (repid != null)
-                return repid;
-
-            repid = kIDLPrefix + convertToISOLatin1(ser.getName()).replace('.', '/') + ":" + major + "." + minor;
-            classIDLToRepStr.put(ser, repid);
+        String repid = classIDLToRepStr.get(ser);
+        if (repid != null)
             return repid;
-        }
+
+        repid = kIDLPrefix + convertToISOLatin1(ser.getName()).replace('.', '/') + ":" + major + "." + minor;
+        return classIDLToRepStr.putIfAbsent(ser, repid);
     }
 
     private static String getIdFromHelper(Class<?> clazz)
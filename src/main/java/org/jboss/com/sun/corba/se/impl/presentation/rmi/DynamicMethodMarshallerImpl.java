@@ -28,11 +28,17 @@ package org.jboss.com.sun.corba.se.impl.presentation.rmi;
 import java.io.Externalizable;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.rmi.RemoteException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.rmi.PortableRemoteObject;
 import javax.rmi.CORBA.Util;
 
+import org.jboss.com.sun.corba.se.impl.orbutil.ORBConstants;
 import org.jboss.com.sun.corba.se.spi.orb.ORB;
 import org.jboss.com.sun.corba.se.spi.presentation.rmi.DynamicMethodMarshaller;
 import org.omg.CORBA.portable.ApplicationException;
@@ -52,12 +58,66 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
 
     boolean needsArgumentCopy; // true if copyObjects call needs for args
 
+    int[] copiedArgs = null; // indexes of the args to copy, if only some of them need copying
+
     boolean needsResultCopy; // true if copyObject call needs for result
 
     ReaderWriter[] argRWs = null;
 
     ReaderWriter resultRW = null;
 
+    // Final classes whose instances cannot be changed, so that a colocated call can share them instead of copying them.
+    private static final Set<Class<?>> immutableClasses = new HashSet<Class<?>>();
+
+    static
+    {
+        immutableClasses.add(String.class);
+        immutableClasses.add(Boolean.class);
+        immutableClasses.add(Byte.class);
+        immutableClasses.add(Character.class);
+        immutableClasses.add(Short.class);
+        immutableClasses.add(Integer.class);
+        immutableClasses.add(Long.class);
+        immutableClasses.add(Float.class);
+        immutableClasses.add(Double.class);
+    }
+
+    private static final Set<String> registeredImmutableClassNames = AccessController
+            .doPrivileged(new PrivilegedAction<Set<String>>()
+            {
+                public Set<String> run()
+                {
+                    Set<String> names = new HashSet<String>();
+                    String value = System.getProperty(ORBConstants.IMMUTABLE_CLASSES_PROPERTY);
+                    if (value != null)
+                    {
+                        String[] tokens = value.split(",");
+                        for (int ctr = 0; ctr < tokens.length; ctr++)
+                        {
+                            String name = tokens[ctr].trim();
+                            if (name.length() > 0)
+                                names.add(name);
+                        }
+                    }
+                    return names;
+                }
+            });
+
+    // Return whether every value of declared type cls can be shared between the caller and a colocated servant. Only
+    // final classes qualify, since the declared type says nothing about a subclass instance. Enum constants qualify
+    // because copying one yields the same constant anyway.
+    private static boolean isImmutable(Class<?> cls)
+    {
+        if (cls.isPrimitive() || immutableClasses.contains(cls))
+            return true;
+
+        if (cls.isEnum())
+            return true;
+
+        return Modifier.isFinal(cls.getModifiers()) && !cls.isArray()
+                && registeredImmutableClassNames.contains(cls.getName());
+    }
+
     private static boolean isAnyClass(Class<?> cls)
     {
         return cls.equals(Object.class) || cls.equals(Serializable.class) || cls.equals(Externalizable.class);
@@ -134,7 +194,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             boolean value = is.read_boolean();
-            return new Boolean(value);
+            return Boolean.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -149,7 +209,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             byte value = is.read_octet();
-            return new Byte(value);
+            return Byte.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -164,7 +224,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             char value = is.read_wchar();
-            return new Character(value);
+            return Character.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -179,7 +239,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             short value = is.read_short();
-            return new Short(value);
+            return Short.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -194,7 +254,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             int value = is.read_long();
-            return new Integer(value);
+            return Integer.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -209,7 +269,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             long value = is.read_longlong();
-            return new Long(value);
+            return Long.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -224,7 +284,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             float value = is.read_float();
-            return new Float(value);
+            return Float.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -239,7 +299,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         public Object read(InputStream is)
         {
             double value = is.read_double();
-            return new Double(value);
+            return Double.valueOf(value);
         }
 
         public void write(OutputStream os, Object value)
@@ -365,14 +425,27 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         if (hasArguments)
         {
             argRWs = new ReaderWriter[argTypes.length];
+            int[] mutableArgs = new int[argTypes.length];
+            int numMutableArgs = 0;
+            boolean hasImmutableObjectArgs = false;
             for (int ctr = 0; ctr < argTypes.length; ctr++)
             {
-                // This could be further optimized to avoid copying if argTypes contains at most one immutable object
-                // type.
-                if (!argTypes[ctr].isPrimitive())
-                    needsArgumentCopy = true;
+                // Primitive and immutable arguments can be shared with the servant.
+                if (!isImmutable(argTypes[ctr]))
+                    mutableArgs[numMutableArgs++] = ctr;
+                else if (!argTypes[ctr].isPrimitive())
+                    hasImmutableObjectArgs = true;
                 argRWs[ctr] = makeReaderWriter(argTypes[ctr]);
             }
+
+            needsArgumentCopy = numMutableArgs > 0;
+
+            // Copy only the mutable arguments, unless the others are all primitives, which cost nothing to copy.
+            if (needsArgumentCopy && hasImmutableObjectArgs)
+            {
+                copiedArgs = new int[numMutableArgs];
+                System.arraycopy(mutableArgs, 0, copiedArgs, 0, numMutableArgs);
+            }
         }
 
         Class<?> resultType = method.getReturnType();
@@ -380,7 +453,7 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
         hasVoidResult = resultType.equals(void.class);
         if (!hasVoidResult)
         {
-            needsResultCopy = !resultType.isPrimitive();
+            needsResultCopy = !isImmutable(resultType);
             resultRW = makeReaderWriter(resultType);
         }
     }
@@ -392,10 +465,24 @@ public class DynamicMethodMarshallerImpl implements DynamicMethodMarshaller
 
     public Object[] copyArguments(Object[] args, ORB orb) throws RemoteException
     {
-        if (needsArgumentCopy)
-            return Util.copyObjects(args, orb);
-        else
+        if (!needsArgumentCopy)
             return args;
+
+        if (copiedArgs == null)
+            return Util.copyObjects(args, orb);
+
+        // Copy the mutable arguments together, so that sharing among them is preserved, and pass the others as is.
+        Object[] mutableArgs = new Object[copiedArgs.length];
+        for (int ctr = 0; ctr < copiedArgs.length; ctr++)
+            mutableArgs[ctr] = args[copiedArgs[ctr]];
+
+        Object[] copies = Util.copyObjects(mutableArgs, orb);
+
+        Object[] result = args.clone();
+        for (int ctr = 0; ctr < copiedArgs.length; ctr++)
+            result[copiedArgs[ctr]] = copies[ctr];
+
+        return result;
     }
 
     public Object[] readArguments(InputStream is)
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.presentation.rmi;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.com.sun.corba.se.impl.orbutil.ClassCache;
+import org.jboss.com.sun.corba.se.spi.presentation.rmi.DynamicMethodMarshaller;
+import org.jboss.com.sun.corba.se.spi.presentation.rmi.IDLNameTranslator;
+import org.jboss.com.sun.corba.se.spi.presentation.rmi.PresentationManager;
+
+/**
+ * The operations of the remote interfaces of one class, resolved once for ReflectiveTie and StubInvocationHandlerImpl.
+ * <p>
+ * Each operation holds its IDL name, the Java method, which IDLNameTranslatorImpl has already made accessible, and its
+ * DynamicMethodMarshaller. The server side finds an operation with one lookup by IDL name and the local stub path with
+ * one lookup by Method, instead of going through the IDLNameTranslator and the PresentationManager marshaller cache
+ * separately on every call. The tables are built on first use and shared by all ties and stubs of a class.
+ */
+final class OperationTable
+{
+    static final class Operation
+    {
+        final String idlName;
+
+        final Method method;
+
+        final DynamicMethodMarshaller dmm;
+
+        Operation(String idlName, Method method, DynamicMethodMarshaller dmm)
+        {
+            this.idlName = idlName;
+            this.method = method;
+            this.dmm = dmm;
+        }
+    }
+
+    private static final ClassCache<OperationTable> tables = new ClassCache<OperationTable>();
+
+    // Both maps are only read once the table has been built.
+    private final Map<String, Operation> idlNameToOperation = new HashMap<String, Operation>();
+
+    private final Map<Method, Operation> methodToOperation = new HashMap<Method, Operation>();
+
+    private OperationTable(PresentationManager pm, IDLNameTranslator translator)
+    {
+        Method[] methods = translator.getMethods();
+        for (int i = 0; i < methods.length; i++)
+        {
+            Method method = methods[i];
+            String idlName = translator.getIDLName(method);
+            Operation operation = new Operation(idlName, method, pm.getDynamicMethodMarshaller(method));
+
+            idlNameToOperation.put(idlName, operation);
+            methodToOperation.put(method, operation);
+        }
+    }
+
+    /**
+     * Returns the operation table for the class of classData.
+     */
+    static OperationTable get(PresentationManager pm, PresentationManager.ClassData classData)
+    {
+        Class<?> cls = classData.getMyClass();
+        OperationTable table = tables.get(cls);
+        if (table == null)
+            table = tables.putIfAbsent(cls, new OperationTable(pm, classData.getIDLNameTranslator()));
+
+        return table;
+    }
+
+    /**
+     * Returns the operation with the given IDL name, or null if there is none.
+     */
+    Operation getOperation(String idlName)
+    {
+        return idlNameToOperation.get(idlName);
+    }
+
+    /**
+     * Returns the operation of the given remote interface method, or null if there is none.
+     */
+    Operation getOperation(Method method)
+    {
+        return methodToOperation.get(method);
+    }
+}
@@ -34,9 +34,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.rmi.CORBA.Tie;
 
+import org.jboss.com.sun.corba.se.impl.orbutil.ClassCache;
 import org.jboss.com.sun.corba.se.impl.orbutil.graph.Graph;
 import org.jboss.com.sun.corba.se.impl.orbutil.graph.GraphImpl;
 import org.jboss.com.sun.corba.se.impl.orbutil.graph.Node;
@@ -47,9 +50,13 @@ import org.jboss.com.sun.corba.se.spi.presentation.rmi.PresentationManager;
 
 public final class PresentationManagerImpl implements PresentationManager
 {
-    private Map<Class<?>, ClassData> classToClassData;
+    // Both caches are read on every dynamic stub and reflective tie invocation, so they are concurrent and take no
+    // lock, and neither keeps the remote classes from being unloaded. The marshallers are kept per declaring class of
+    // their method.
+    private final ClassCache<ClassData> classToClassData = new ClassCache<ClassData>();
 
-    private Map<Method, DynamicMethodMarshaller> methodToDMM;
+    private final ClassCache<ConcurrentMap<Method, DynamicMethodMarshaller>> methodToDMM =
+            new ClassCache<ConcurrentMap<Method, DynamicMethodMarshaller>>();
 
     private PresentationManager.StubFactoryFactory staticStubFactoryFactory;
 
@@ -60,38 +67,39 @@ public final class PresentationManagerImpl implements PresentationManager
     public PresentationManagerImpl(boolean useDynamicStubs)
     {
         this.useDynamicStubs = useDynamicStubs;
-        // XXX these should probably be WeakHashMaps.
-        classToClassData = new HashMap<Class<?>, ClassData>();
-        methodToDMM = new HashMap<Method, DynamicMethodMarshaller>();
     }
 
     // //////////////////////////////////////////////////////////////////////////////
     // PresentationManager interface
     // //////////////////////////////////////////////////////////////////////////////
 
-    public synchronized DynamicMethodMarshaller getDynamicMethodMarshaller(Method method)
+    public DynamicMethodMarshaller getDynamicMethodMarshaller(Method method)
     {
         if (method == null)
             return null;
 
-        DynamicMethodMarshaller result = methodToDMM.get(method);
+        Class<?> cls = method.getDeclaringClass();
+        ConcurrentMap<Method, DynamicMethodMarshaller> marshallers = methodToDMM.get(cls);
+        if (marshallers == null)
+            marshallers = methodToDMM.putIfAbsent(cls, new ConcurrentHashMap<Method, DynamicMethodMarshaller>());
+
+        DynamicMethodMarshaller result = marshallers.get(method);
         if (result == null)
         {
             result = new DynamicMethodMarshallerImpl(method);
-            methodToDMM.put(method, result);
+            DynamicMethodMarshaller old = marshallers.putIfAbsent(method, result);
+            if (old != null)
+                result = old;
         }
 
         return result;
     }
 
-    public synchronized ClassData getClassData(Class<?> cls)
+    public ClassData getClassData(Class<?> cls)
     {
         ClassData result = classToClassData.get(cls);
         if (result == null)
-        {
-            result = new ClassDataImpl(cls);
-            classToClassData.put(cls, result);
-        }
+            result = classToClassData.putIfAbsent(cls, new ClassDataImpl(cls));
 
         return result;
     }
@@ -49,6 +49,8 @@ public final class ReflectiveTie extends Servant implements Tie
 
     private PresentationManager.ClassData classData = null;
 
+    private OperationTable operations = null;
+
     private ORBUtilSystemException wrapper = null;
 
     public ReflectiveTie(PresentationManager pm, ORBUtilSystemException wrapper)
@@ -74,11 +76,13 @@ public final class ReflectiveTie extends Servant implements Tie
         if (target == null)
         {
             classData = null;
+            operations = null;
         }
         else
         {
             Class<?> targetClass = target.getClass();
             classData = pm.getClassData(targetClass);
+            operations = OperationTable.get(pm, classData);
         }
     }
 
@@ -139,11 +143,12 @@ public final class ReflectiveTie extends Servant implements Tie
         {
             InputStream in = (InputStream) _in;
 
-            javaMethod = classData.getIDLNameTranslator().getMethod(method);
-            if (javaMethod == null)
+            OperationTable.Operation operation = operations.getOperation(method);
+            if (operation == null)
                 throw wrapper.methodNotFoundInTie(method, target.getClass().getName());
 
-            dmm = pm.getDynamicMethodMarshaller(javaMethod);
+            javaMethod = operation.method;
+            dmm = operation.dmm;
 
             Object[] args = dmm.readArguments(in);
 
@@ -54,6 +54,8 @@ public final class StubInvocationHandlerImpl implements LinkedInvocationHandler
 
     private transient PresentationManager pm;
 
+    private transient OperationTable operations;
+
     private transient org.omg.CORBA.Object stub;
 
     private transient Proxy self;
@@ -79,6 +81,7 @@ public final class StubInvocationHandlerImpl implements LinkedInvocationHandler
         this.classData = classData;
         this.pm = pm;
         this.stub = stub;
+        this.operations = OperationTable.get(pm, classData);
     }
 
     private boolean isLocal()
@@ -109,8 +112,24 @@ public final class StubInvocationHandlerImpl implements LinkedInvocationHandler
      */
     public Object invoke(Object proxy, final Method method, Object[] args) throws Throwable
     {
-        String giopMethodName = classData.getIDLNameTranslator().getIDLName(method);
-        DynamicMethodMarshaller dmm = pm.getDynamicMethodMarshaller(method);
+        String giopMethodName;
+        DynamicMethodMarshaller dmm;
+        // The method to call on a local servant, which is already accessible if it comes from the operation table.
+        Method localMethod;
+
+        OperationTable.Operation operation = operations.getOperation(method);
+        if (operation != null)
+        {
+            giopMethodName = operation.idlName;
+            dmm = operation.dmm;
+            localMethod = operation.method;
+        }
+        else
+        {
+            giopMethodName = classData.getIDLNameTranslator().getIDLName(method);
+            dmm = pm.getDynamicMethodMarshaller(method);
+            localMethod = method;
+        }
 
         Delegate delegate = null;
         try
@@ -173,7 +192,8 @@ public final class StubInvocationHandlerImpl implements LinkedInvocationHandler
             {
                 Object[] copies = dmm.copyArguments(args, orb);
 
-                if (!method.isAccessible())
+                final Method m = localMethod;
+                if (!m.isAccessible())
                 {
                     // Make sure that we can invoke a method from a normally inaccessible package, as this reflective
                     // class must always be able to invoke a non-public method.
@@ -181,13 +201,13 @@ public final class StubInvocationHandlerImpl implements LinkedInvocationHandler
                     {
                         public Void run()
                         {
-                            method.setAccessible(true);
+                            m.setAccessible(true);
                             return null;
                         }
                     });
                 }
 
-                Object result = method.invoke(so.servant, copies);
+                Object result = m.invoke(so.servant, copies);
 
                 return dmm.copyResult(result, orb);
             }
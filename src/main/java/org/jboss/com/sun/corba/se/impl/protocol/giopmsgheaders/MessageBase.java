@@ -48,6 +48,7 @@ import org.jboss.com.sun.corba.se.spi.logging.CORBALogDomains;
 import org.jboss.com.sun.corba.se.spi.orb.ORB;
 import org.jboss.com.sun.corba.se.spi.servicecontext.ServiceContexts;
 import org.jboss.com.sun.corba.se.spi.transport.CorbaConnection;
+import org.jboss.com.sun.corba.se.spi.transport.CorbaReadAheadConnection;
 import org.jboss.com.sun.corba.se.spi.transport.ReadTimeouts;
 import org.omg.CORBA.CompletionStatus;
 import org.omg.CORBA.Principal;
@@ -124,6 +125,9 @@ public abstract class MessageBase implements Message
 
     public static MessageBase readGIOPMessage(ORB orb, CorbaConnection connection)
     {
+        if (connection instanceof CorbaReadAheadConnection)
+            return readGIOPMessage(orb, (CorbaReadAheadConnection) connection);
+
         MessageBase msg = readGIOPHeader(orb, connection);
         msg = (MessageBase) readGIOPBody(orb, connection, msg);
         return msg;
@@ -131,7 +135,6 @@ public abstract class MessageBase implements Message
 
     public static MessageBase readGIOPHeader(ORB orb, CorbaConnection connection)
     {
-        MessageBase msg = null;
         ReadTimeouts readTimeouts = orb.getORBData().getTransportTCPReadTimeouts();
 
         ByteBuffer buf = null;
@@ -146,6 +149,82 @@ public abstract class MessageBase implements Message
             throw wrapper.ioexceptionWhenReadingConnection(e);
         }
 
+        return readGIOPHeader(orb, buf);
+    }
+
+    /**
+     * Reads a GIOP message from a connection that reads ahead. The message is carved out of the bytes the connection
+     * has already read when they hold all of it, so that small and pipelined messages take no read of their own. Only
+     * the rest of a message larger than what was read ahead is read directly into the buffer of the message.
+     */
+    private static MessageBase readGIOPMessage(ORB orb, CorbaReadAheadConnection connection)
+    {
+        ReadTimeouts readTimeouts = orb.getORBData().getTransportTCPReadTimeouts();
+        ByteBuffer readAhead = connection.getReadAheadBuffer();
+
+        try
+        {
+            while (readAhead.remaining() < GIOPMessageHeaderLength)
+            {
+                readAhead.compact();
+                try
+                {
+                    connection.readAhead(readAhead, readTimeouts.get_max_giop_header_time_to_wait());
+                }
+                finally
+                {
+                    // Leave the buffer ready for reading even if the read failed.
+                    readAhead.flip();
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw wrapper.ioexceptionWhenReadingConnection(e);
+        }
+
+        // The header is read in place; the message is only copied out once it is known to be valid.
+        MessageBase msg = readGIOPHeader(orb, readAhead.slice());
+
+        int size = msg.getSize();
+        ByteBuffer buf;
+        if (connection.shouldUseDirectByteBuffers())
+            buf = orb.getByteBufferPool().getByteBuffer(size);
+        else
+            buf = ByteBuffer.allocate(size);
+        buf.limit(size);
+
+        int available = Math.min(size, readAhead.remaining());
+        ByteBuffer view = readAhead.duplicate();
+        view.limit(view.position() + available);
+        buf.put(view);
+        readAhead.position(readAhead.position() + available);
+
+        if (available < size)
+        {
+            try
+            {
+                buf = connection.read(buf, available, size - available, readTimeouts.get_max_time_to_wait());
+            }
+            catch (IOException e)
+            {
+                throw wrapper.ioexceptionWhenReadingConnection(e);
+            }
+        }
+
+        buf.position(0);
+        msg.setByteBuffer(buf);
+
+        if (orb.giopDebugFlag)
+            dprintBody(orb, msg);
+
+        return msg;
+    }
+
+    private static MessageBase readGIOPHeader(ORB orb, ByteBuffer buf)
+    {
+        MessageBase msg = null;
+
         if (orb.giopDebugFlag)
         {
             // Since this is executed in debug mode only the overhead of using a View Buffer is not an issue. We'll also
@@ -483,17 +562,20 @@ public abstract class MessageBase implements Message
         msg.setByteBuffer(buf);
 
         if (orb.giopDebugFlag)
-        {
-            dprint(".readGIOPBody: received message:");
-            ByteBuffer viewBuffer = buf.asReadOnlyBuffer();
-            viewBuffer.position(0).limit(msg.getSize());
-            ByteBufferWithInfo bbwi = new ByteBufferWithInfo(orb, viewBuffer);
-            CDRInputStream_1_0.printBuffer(bbwi);
-        }
+            dprintBody(orb, msg);
 
         return msg;
     }
 
+    private static void dprintBody(ORB orb, Message msg)
+    {
+        dprint(".readGIOPBody: received message:");
+        ByteBuffer viewBuffer = msg.getByteBuffer().asReadOnlyBuffer();
+        viewBuffer.position(0).limit(msg.getSize());
+        ByteBufferWithInfo bbwi = new ByteBufferWithInfo(orb, viewBuffer);
+        CDRInputStream_1_0.printBuffer(bbwi);
+    }
+
     private static RequestMessage createRequest(ORB orb, GIOPVersion gv, byte encodingVersion, int request_id,
             boolean response_expected, byte[] object_key, String operation, ServiceContexts service_contexts,
             Principal requesting_principal)
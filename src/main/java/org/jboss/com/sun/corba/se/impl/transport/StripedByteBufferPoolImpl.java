@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.impl.transport;
+
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.com.sun.corba.se.impl.orbutil.GetPropertyAction;
+import org.jboss.com.sun.corba.se.impl.orbutil.ORBConstants;
+import org.jboss.com.sun.corba.se.pept.transport.ByteBufferPool;
+import org.jboss.com.sun.corba.se.spi.orb.ORB;
+
+/**
+ * A ByteBufferPool that pools direct ByteBuffers in several size classes without a global lock.
+ * <p>
+ * Size class i holds buffers of exactly (GIOP fragment size << i) bytes, so the buffers obtained by
+ * ByteBufferWithInfo.growBuffer(), which doubles the buffer size, are pooled as well. Requests larger than the
+ * largest size class get a non-direct ByteBuffer, as in ByteBufferPoolImpl.
+ * <p>
+ * Each size class is split into stripes of lock free queues. A thread gets and releases buffers on the stripe picked by
+ * its thread id, and only looks at the other stripes when its own is empty. The total capacity of the buffers held in
+ * the pool is bounded by ORBConstants.BYTE_BUFFER_POOL_MAX_RETAINED_PROPERTY; buffers released beyond that bound are
+ * left to the garbage collector.
+ * <p>
+ * This pool is selected by setting ORBConstants.BYTE_BUFFER_POOL_CLASS_PROPERTY to the name of this class.
+ */
+public class StripedByteBufferPoolImpl implements ByteBufferPool
+{
+    private final ORB itsOrb;
+
+    private final boolean debug;
+
+    private final int itsMinBufferSize;
+
+    private final int itsMaxBufferSize;
+
+    private final long itsMaxRetainedBytes;
+
+    private final int itsStripeMask;
+
+    // itsPools[sizeClass][stripe]
+    private final ConcurrentLinkedQueue<ByteBuffer>[][] itsPools;
+
+    private final AtomicLong itsRetainedBytes = new AtomicLong();
+
+    private final AtomicLong itsHits = new AtomicLong();
+
+    private final AtomicLong itsMisses = new AtomicLong();
+
+    private final AtomicLong itsDiscards = new AtomicLong();
+
+    private final AtomicInteger itsObjectCounter = new AtomicInteger();
+
+    public StripedByteBufferPoolImpl(ORB theORB)
+    {
+        itsOrb = theORB;
+        debug = theORB.transportDebugFlag;
+
+        int sizeClasses = getIntProperty(ORBConstants.BYTE_BUFFER_POOL_SIZE_CLASSES_PROPERTY,
+                ORBConstants.DEFAULT_BYTE_BUFFER_POOL_SIZE_CLASSES);
+        if (sizeClasses < 1)
+            sizeClasses = 1;
+
+        itsMinBufferSize = theORB.getORBData().getGIOPFragmentSize();
+
+        // Stop before the class sizes overflow an int.
+        int maxBufferSize = itsMinBufferSize;
+        int classes = 1;
+        while (classes < sizeClasses && maxBufferSize <= (Integer.MAX_VALUE >> 1))
+        {
+            maxBufferSize <<= 1;
+            classes++;
+        }
+        itsMaxBufferSize = maxBufferSize;
+
+        itsMaxRetainedBytes = getLongProperty(ORBConstants.BYTE_BUFFER_POOL_MAX_RETAINED_PROPERTY,
+                ORBConstants.DEFAULT_BYTE_BUFFER_POOL_MAX_RETAINED);
+
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors())
+            stripes <<= 1;
+        itsStripeMask = stripes - 1;
+
+        // Arrays of a generic type can only be created raw, so the raw type and unchecked conversion are confined to
+        // this local.
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        ConcurrentLinkedQueue<ByteBuffer>[][] pools = new ConcurrentLinkedQueue[classes][stripes];
+        itsPools = pools;
+        for (int i = 0; i < classes; i++)
+        {
+            for (int j = 0; j < stripes; j++)
+                itsPools[i][j] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+    }
+
+    public ByteBuffer getByteBuffer(int theAskSize)
+    {
+        if (theAskSize > itsMaxBufferSize || itsOrb.getORBData().disableDirectByteBufferUse())
+        {
+            // Requested ByteBuffer size larger than the pool manages. Just allocate a non-direct ByteBuffer
+            return ByteBuffer.allocate(theAskSize);
+        }
+
+        int sizeClass = sizeClassFor(theAskSize);
+        ByteBuffer abb = poll(itsPools[sizeClass]);
+
+        if (abb != null)
+        {
+            itsRetainedBytes.addAndGet(-abb.capacity());
+            itsHits.incrementAndGet();
+
+            // clear ByteBuffer before returning it
+            abb.clear();
+        }
+        else
+        {
+            itsMisses.incrementAndGet();
+            abb = ByteBuffer.allocateDirect(itsMinBufferSize << sizeClass);
+        }
+
+        itsObjectCounter.incrementAndGet();
+
+        return abb;
+    }
+
+    // Only direct ByteBuffers whose capacity is exactly one of the size classes come from this pool. Anything else is
+    // not pooled and is simply dropped.
+    public void releaseByteBuffer(ByteBuffer thebb)
+    {
+        if (!thebb.isDirect())
+            return;
+
+        itsObjectCounter.decrementAndGet();
+
+        int capacity = thebb.capacity();
+        int sizeClass = sizeClassFor(capacity);
+        if (capacity > itsMaxBufferSize || (itsMinBufferSize << sizeClass) != capacity)
+        {
+            itsDiscards.incrementAndGet();
+            return;
+        }
+
+        // Reserve room for the buffer before making it visible to other threads, so that the bound holds at all times.
+        if (itsRetainedBytes.addAndGet(capacity) > itsMaxRetainedBytes)
+        {
+            itsRetainedBytes.addAndGet(-capacity);
+            itsDiscards.incrementAndGet();
+            return;
+        }
+
+        ConcurrentLinkedQueue<ByteBuffer> stripe = itsPools[sizeClass][stripeIndex()];
+
+        if (debug && stripe.contains(thebb))
+        {
+            // log a stack trace with duplicate message
+            itsRetainedBytes.addAndGet(-capacity);
+            String threadName = Thread.currentThread().getName();
+            Throwable t = new Throwable(threadName + ": Duplicate ByteBuffer reference ("
+                    + System.identityHashCode(thebb) + ")");
+            t.printStackTrace(System.out);
+            return;
+        }
+
+        stripe.offer(thebb);
+    }
+
+    // Get a count of the outstanding allocated DirectByteBuffers. (Those allocated and have not been returned to the
+    // pool).
+    public int activeCount()
+    {
+        return itsObjectCounter.get();
+    }
+
+    // Number of getByteBuffer calls served from the pool.
+    public long hitCount()
+    {
+        return itsHits.get();
+    }
+
+    // Number of getByteBuffer calls that had to allocate a new DirectByteBuffer.
+    public long missCount()
+    {
+        return itsMisses.get();
+    }
+
+    // Number of released DirectByteBuffers that were dropped, either because they do not match a size class or
+    // because the pool was full.
+    public long discardCount()
+    {
+        return itsDiscards.get();
+    }
+
+    // Total capacity in bytes of the DirectByteBuffers currently held in the pool.
+    public long retainedBytes()
+    {
+        return itsRetainedBytes.get();
+    }
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer("StripedByteBufferPoolImpl[");
+        sb.append("hits=").append(hitCount());
+        sb.append(" misses=").append(missCount());
+        sb.append(" discards=").append(discardCount());
+        sb.append(" active=").append(activeCount());
+        sb.append(" retainedBytes=").append(retainedBytes());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    // Returns the smallest size class whose buffers hold theSize bytes.
+    private int sizeClassFor(int theSize)
+    {
+        int sizeClass = 0;
+        int classSize = itsMinBufferSize;
+        while (classSize < theSize && sizeClass < itsPools.length - 1)
+        {
+            classSize <<= 1;
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    private int stripeIndex()
+    {
+        return (int) Thread.currentThread().getId() & itsStripeMask;
+    }
+
+    // Polls the calling thread's stripe first, then the others.
+    private ByteBuffer poll(ConcurrentLinkedQueue<ByteBuffer>[] stripes)
+    {
+        int start = stripeIndex();
+        for (int i = 0; i < stripes.length; i++)
+        {
+            ByteBuffer abb = stripes[(start + i) & itsStripeMask].poll();
+            if (abb != null)
+                return abb;
+        }
+        return null;
+    }
+
+    private static int getIntProperty(String name, int defaultValue)
+    {
+        return (int) getLongProperty(name, defaultValue);
+    }
+
+    private static long getLongProperty(String name, long defaultValue)
+    {
+        String value = AccessController.doPrivileged(new GetPropertyAction(name));
+        if (value == null)
+            return defaultValue;
+
+        try
+        {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException exc)
+        {
+            return defaultValue;
+        }
+    }
+}
+
+// End of file.
@@ -32,8 +32,8 @@
 package org.jboss.com.sun.corba.se.impl.util;
 
 import java.util.EmptyStackException;
-import java.util.Hashtable;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 // Really limited pool - in this case just creating several at a time...
 @SuppressWarnings("unused")
@@ -85,7 +85,7 @@ class RepositoryIdPool extends Stack<RepositoryId>
 
 }
 
-public class RepositoryIdCache extends Hashtable<String, RepositoryId>
+public class RepositoryIdCache extends ConcurrentHashMap<String, RepositoryId>
 {
 
     private static final long serialVersionUID = -8725173778421510608L;
@@ -97,7 +97,7 @@ public class RepositoryIdCache extends Hashtable<String, RepositoryId>
         pool.setCaches(this);
     }
 
-    public final synchronized RepositoryId getId(String key)
+    public final RepositoryId getId(String key)
     {
         RepositoryId repId = super.get(key);
 
@@ -107,8 +107,10 @@ public class RepositoryIdCache extends Hashtable<String, RepositoryId>
         {
             // repId = pool.popId().init(key);
             repId = new RepositoryId(key);
-            put(key, repId);
-            return repId;
+
+            // Another thread may have added an id for key in the meantime; if so, use that one.
+            RepositoryId existing = putIfAbsent(key, repId);
+            return (existing != null) ? existing : repId;
         }
 
     }
@@ -32,6 +32,8 @@
 
 package org.jboss.com.sun.corba.se.impl.util;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
 import java.rmi.NoSuchObjectException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
@@ -44,6 +46,7 @@ import javax.rmi.CORBA.Util;
 
 import org.jboss.com.sun.corba.se.impl.logging.OMGSystemException;
 import org.jboss.com.sun.corba.se.impl.logging.UtilSystemException;
+import org.jboss.com.sun.corba.se.impl.orbutil.ClassCache;
 import org.jboss.com.sun.corba.se.spi.logging.CORBALogDomains;
 import org.jboss.com.sun.corba.se.spi.presentation.rmi.PresentationManager;
 import org.jboss.com.sun.corba.se.spi.presentation.rmi.StubAdapter;
@@ -72,7 +75,10 @@ public final class Utility
 
     public static final String TIE_SUFIX = "_Tie";
 
-    private static IdentityHashtable tieCache = new IdentityHashtable();
+    // Maps each servant class to the TieMaker for its ties. The classes are held weakly, so that they can be unloaded.
+    // The cache needs no bound of its own: it holds at most one small entry per loaded servant class, and the entry goes
+    // away with the class, so evicting entries of live classes would only repeat their lookups.
+    private static final ClassCache<TieMaker> tieMakers = new ClassCache<TieMaker>();
 
     private static IdentityHashtable tieToStubCache = new IdentityHashtable();
 
@@ -177,71 +183,120 @@ public final class Utility
      */
     public static Tie loadTie(Remote obj)
     {
-        Tie result = null;
         Class<?> objClass = obj.getClass();
 
-        // Have we tried to find this guy before?
+        // Have we tried to find a tie for this class before?
+        TieMaker maker = tieMakers.get(objClass);
+        if (maker != null)
+            return maker.make();
 
-        synchronized (tieCache)
+        // No, so try it...
+        Tie result = null;
+        boolean failed = false;
+        try
         {
+            // First try the classname...
+            result = loadTie(objClass);
 
-            Object it = tieCache.get(obj);
-
-            if (it == null)
+            // If we don't have a valid tie at this point, walk up the parent chain until we either load a tie or
+            // encounter PortableRemoteObject or java.lang.Object...
+            while (result == null && (objClass = objClass.getSuperclass()) != null
+                    && objClass != PortableRemoteObject.class && objClass != Object.class)
             {
+                result = loadTie(objClass);
+            }
+        }
+        catch (Exception ex)
+        {
+            wrapper.loadTieFailed(ex, objClass.getName());
+            failed = true;
+        }
 
-                // No, so try it...
+        // Cache how to make the ties of this class, or that there are none. A lookup that failed is not cached, since
+        // it may succeed for a later instance.
+        if (!failed)
+            tieMakers.putIfAbsent(obj.getClass(), (result == null) ? NO_TIE : makeTieMaker(result, objClass));
 
-                try
-                {
+        return result;
+    }
 
-                    // First try the classname...
+    /*
+     * Creates the ties of a servant class. The tie of a class is found once by loadTie(Remote), which may walk the
+     * superclasses and load classes by name, so later ties of the same class are created directly.
+     */
+    private abstract static class TieMaker
+    {
+        abstract Tie make();
+    }
 
-                    result = loadTie(objClass);
+    private static final TieMaker NO_TIE = new TieMaker()
+    {
+        Tie make()
+        {
+            return null;
+        }
+    };
 
-                    // If we don't have a valid tie at this point, walk up the parent chain until we either load a tie
-                    // or encounter PortableRemoteObject or java.lang.Object...
-                    while (result == null && (objClass = objClass.getSuperclass()) != null
-                            && objClass != PortableRemoteObject.class && objClass != Object.class)
-                    {
+    // Creates ties through the public no-arg constructor of a tie class.
+    private static class ConstructorTieMaker extends TieMaker
+    {
+        private final Constructor<?> cons;
 
-                        result = loadTie(objClass);
-                    }
-                }
-                catch (Exception ex)
-                {
-                    wrapper.loadTieFailed(ex, objClass.getName());
-                }
+        ConstructorTieMaker(Constructor<?> cons)
+        {
+            this.cons = cons;
+        }
 
-                // Did we get it?
-                if (result == null)
-                {
-                    // Nope, so cache that fact...
-                    tieCache.put(obj, CACHE_MISS);
-                }
-                else
-                {
-                    // Yes, so cache it...
-                    tieCache.put(obj, result);
-                }
+        Tie make()
+        {
+            try
+            {
+                return (Tie) cons.newInstance();
             }
-            else
+            catch (Exception e)
             {
-                // Yes, return a new instance or fail again if it was a miss last time...
-                if (it != CACHE_MISS)
-                {
-                    try
-                    {
-                        result = (Tie) it.getClass().newInstance();
-                    }
-                    catch (Exception e)
-                    {
-                    }
-                }
+                return null;
             }
         }
+    }
 
-        return result;
+    // Creates ties through the stub factory factory, for ties such as ReflectiveTie that have no no-arg constructor.
+    private static class FactoryTieMaker extends TieMaker
+    {
+        private final Class<?> tieSourceClass;
+
+        FactoryTieMaker(Class<?> tieSourceClass)
+        {
+            this.tieSourceClass = tieSourceClass;
+        }
+
+        Tie make()
+        {
+            try
+            {
+                return loadTie(tieSourceClass);
+            }
+            catch (Exception e)
+            {
+                return null;
+            }
+        }
+    }
+
+    // Returns the TieMaker for more ties like tie, which loadTie(Class) returned for tieSourceClass.
+    private static TieMaker makeTieMaker(Tie tie, Class<?> tieSourceClass)
+    {
+        try
+        {
+            Constructor<?> cons = tie.getClass().getConstructor();
+            if (Modifier.isPublic(tie.getClass().getModifiers()))
+                return new ConstructorTieMaker(cons);
+        }
+        catch (NoSuchMethodException e)
+        {
+        }
+
+        return new FactoryTieMaker(tieSourceClass);
     }
 
     /*
@@ -261,10 +316,7 @@ public final class Utility
         {
             tieToStubCache.clear();
         }
-        synchronized (tieCache)
-        {
-            tieCache.clear();
-        }
+        tieMakers.clear();
         synchronized (stubToTieCache)
         {
             stubToTieCache.clear();
@@ -785,12 +837,8 @@ public final class Utility
      */
     public static void purgeTieAndServant(Tie tie)
     {
-        synchronized (tieCache)
-        {
-            Object target = tie.getTarget();
-            if (target != null)
-                tieCache.remove(target);
-        }
+        // Ties are cached by servant class, not by servant, so there is nothing to remove for a single servant. The
+        // entries for a class go away once the class is unloaded.
     }
 
     /*
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.spi.copyobject;
+
+import org.jboss.com.sun.corba.se.impl.copyobject.FallbackObjectCopierImpl;
+import org.jboss.com.sun.corba.se.impl.copyobject.ORBStreamObjectCopierImpl;
+import org.jboss.com.sun.corba.se.impl.copyobject.ReflectiveObjectCopierImpl;
+import org.jboss.com.sun.corba.se.spi.orb.ORB;
+
+/**
+ * Factories for the ObjectCopier implementations of the ORB, for registration with
+ * {@link CopierManager#registerObjectCopierFactory(ObjectCopierFactory, int)}.
+ */
+public abstract class CopyobjectDefaults
+{
+    private CopyobjectDefaults()
+    {
+    }
+
+    /**
+     * Obtain the ORB stream copier factory. This copier marshals the object to a CDR encapsulation and reads it back.
+     */
+    public static ObjectCopierFactory makeORBStreamObjectCopierFactory(final ORB orb)
+    {
+        return new ObjectCopierFactory()
+        {
+            public ObjectCopier make()
+            {
+                return new ORBStreamObjectCopierImpl(orb);
+            }
+        };
+    }
+
+    /**
+     * Obtain the reflective copier factory. This copier copies the object graph in memory, but fails with a
+     * ReflectiveCopyException for classes that define their own serialization.
+     */
+    public static ObjectCopierFactory makeReflectiveObjectCopierFactory(final ORB orb)
+    {
+        return new ObjectCopierFactory()
+        {
+            public ObjectCopier make()
+            {
+                return new ReflectiveObjectCopierImpl(orb);
+            }
+        };
+    }
+
+    /**
+     * Create a fallback copier factory from the two ObjectCopierFactory arguments. This copier makes an ObjectCopier
+     * from each factory, and uses the second one only if the first one throws a ReflectiveCopyException.
+     */
+    public static ObjectCopierFactory makeFallbackObjectCopierFactory(final ObjectCopierFactory f1,
+            final ObjectCopierFactory f2)
+    {
+        return new ObjectCopierFactory()
+        {
+            public ObjectCopier make()
+            {
+                return new FallbackObjectCopierImpl(f1.make(), f2.make());
+            }
+        };
+    }
+
+    /**
+     * Obtain the default copier factory, which copies with the reflective copier and falls back to the ORB stream
+     * copier for the object graphs that it cannot copy.
+     */
+    public static ObjectCopierFactory makeDefaultObjectCopierFactory(ORB orb)
+    {
+        return makeFallbackObjectCopierFactory(makeReflectiveObjectCopierFactory(orb),
+                makeORBStreamObjectCopierFactory(orb));
+    }
+}
@@ -40,6 +40,7 @@ import org.jboss.com.sun.corba.se.impl.corba.TypeCodeImpl;
 import org.jboss.com.sun.corba.se.impl.logging.OMGSystemException;
 import org.jboss.com.sun.corba.se.impl.logging.ORBUtilSystemException;
 import org.jboss.com.sun.corba.se.impl.oa.poa.BadServerIdHandler;
+import org.jboss.com.sun.corba.se.impl.orbutil.GetPropertyAction;
 import org.jboss.com.sun.corba.se.impl.orbutil.ORBClassLoader;
 import org.jboss.com.sun.corba.se.impl.orbutil.ORBConstants;
 import org.jboss.com.sun.corba.se.impl.presentation.rmi.PresentationManagerImpl;
@@ -494,11 +495,35 @@ public abstract class ORB extends org.jboss.com.sun.corba.se.org.omg.CORBA.ORB i
     public ByteBufferPool getByteBufferPool()
     {
         if (byteBufferPool == null)
-            byteBufferPool = new ByteBufferPoolImpl(this);
+            byteBufferPool = createByteBufferPool();
 
         return byteBufferPool;
     }
 
+    // Create the ByteBufferPool named by ORBConstants.BYTE_BUFFER_POOL_CLASS_PROPERTY, falling back to
+    // ByteBufferPoolImpl if it is not set or cannot be instantiated.
+    private ByteBufferPool createByteBufferPool()
+    {
+        String className = AccessController.doPrivileged(new GetPropertyAction(
+                ORBConstants.BYTE_BUFFER_POOL_CLASS_PROPERTY));
+
+        if (className != null)
+        {
+            try
+            {
+                Class<?> cls = ORBClassLoader.loadClass(className);
+                return (ByteBufferPool) cls.getConstructor(ORB.class).newInstance(this);
+            }
+            catch (Exception exc)
+            {
+                // Use the default. Log the error as a warning.
+                wrapper.couldNotLoadClass(exc, className);
+            }
+        }
+
+        return new ByteBufferPoolImpl(this);
+    }
+
     public abstract void setThreadPoolManager(ThreadPoolManager mgr);
 
     public abstract ThreadPoolManager getThreadPoolManager();
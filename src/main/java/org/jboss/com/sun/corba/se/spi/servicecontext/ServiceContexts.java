@@ -26,7 +26,6 @@
 package org.jboss.com.sun.corba.se.spi.servicecontext;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
 import org.jboss.com.sun.corba.se.impl.encoding.CDRInputStream;
@@ -66,8 +65,7 @@ public class ServiceContexts
     }
 
     /**
-     * Given the input stream, this fills our service context map. See the definition of scMap for details. Creates a
-     * HashMap.
+     * Given the input stream, this fills our service context table. See the definition of scIds for details.
      * 
      * Note that we don't actually unmarshal the bytes of the service contexts here. That is done when they are actually
      * requested via get(int).
@@ -83,6 +81,17 @@ public class ServiceContexts
         if (orb.serviceContextDebugFlag)
             dprint("Number of service contexts = " + numValid);
 
+        // Most messages carry no service contexts, so the empty table is shared until one is added.
+        if (numValid > 0 && numValid <= MAX_INITIAL_CAPACITY)
+        {
+            scIds = new int[numValid];
+            scValues = new Object[numValid];
+        }
+
+        // The count comes from the peer, so a long list is deduplicated through a map in one pass instead of
+        // scanning the table for every entry.
+        Map<Integer, Integer> indexes = (numValid > MAX_INITIAL_CAPACITY) ? new HashMap<Integer, Integer>() : null;
+
         for (int ctr = 0; ctr < numValid; ctr++)
         {
             int scId = is.read_long();
@@ -95,7 +104,23 @@ public class ServiceContexts
             if (orb.serviceContextDebugFlag)
                 dprint("Service context" + scId + " length: " + data.length);
 
-            scMap.put(new Integer(scId), data);
+            if (indexes == null)
+            {
+                putValue(scId, data);
+            }
+            else
+            {
+                Integer index = indexes.get(scId);
+                if (index == null)
+                {
+                    indexes.put(scId, size);
+                    appendValue(scId, data);
+                }
+                else
+                {
+                    scValues[index.intValue()] = data;
+                }
+            }
         }
     }
 
@@ -106,7 +131,9 @@ public class ServiceContexts
 
         addAlignmentOnWrite = false;
 
-        scMap = new HashMap<Integer, Object>();
+        scIds = NO_IDS;
+        scValues = NO_VALUES;
+        size = 0;
 
         // Use the GIOP version of the ORB. Should
         // be specified in ServiceContext.
@@ -137,12 +164,12 @@ public class ServiceContexts
     /**
      * Find the ServiceContextData for a given scId and unmarshal the bytes.
      */
-    private ServiceContext unmarshal(Integer scId, byte[] data)
+    private ServiceContext unmarshal(int scId, byte[] data)
     {
 
         ServiceContextRegistry scr = orb.getServiceContextRegistry();
 
-        ServiceContextData scd = scr.findServiceContextData(scId.intValue());
+        ServiceContextData scd = scr.findServiceContextData(scId);
         ServiceContext sc = null;
 
         if (scd == null)
@@ -152,7 +179,7 @@ public class ServiceContexts
                 dprint("Could not find ServiceContextData for " + scId + " using UnknownServiceContext");
             }
 
-            sc = new UnknownServiceContext(scId.intValue(), data);
+            sc = new UnknownServiceContext(scId, data);
 
         }
         else
@@ -219,7 +246,7 @@ public class ServiceContexts
             Utility.printStackTrace();
         }
 
-        int numsc = scMap.size();
+        int numsc = size;
 
         if (addAlignmentOnWrite)
         {
@@ -254,42 +281,31 @@ public class ServiceContexts
     }
 
     /**
-     * Write the service contexts in scMap in a desired order. Right now, the only special case we have is
+     * Write the service contexts in the table in a desired order. Right now, the only special case we have is
      * UnknownExceptionInfo, so I'm merely writing it last if present.
      */
     private void writeServiceContextsInOrder(OutputStream os, GIOPVersion gv)
     {
+        int ueInfoId = UEInfoServiceContext.SERVICE_CONTEXT_ID;
 
-        // Temporarily remove this rather than check it per iteration
-        Integer ueInfoId = new Integer(UEInfoServiceContext.SERVICE_CONTEXT_ID);
-
-        Object unknownExceptionInfo = scMap.remove(ueInfoId);
-
-        Iterator<Integer> iter = scMap.keySet().iterator();
-
-        while (iter.hasNext())
+        for (int ctr = 0; ctr < size; ctr++)
         {
-            Integer id = iter.next();
-
-            writeMapEntry(os, id, scMap.get(id), gv);
+            if (scIds[ctr] != ueInfoId)
+                writeMapEntry(os, scIds[ctr], scValues[ctr], gv);
         }
 
         // Write the UnknownExceptionInfo service context last
-        // (so it will be after the CodeBase) and restore it in
-        // the map.
-        if (unknownExceptionInfo != null)
-        {
-            writeMapEntry(os, ueInfoId, unknownExceptionInfo, gv);
-
-            scMap.put(ueInfoId, unknownExceptionInfo);
-        }
+        // (so it will be after the CodeBase).
+        int index = indexOf(ueInfoId);
+        if (index >= 0)
+            writeMapEntry(os, ueInfoId, scValues[index], gv);
     }
 
     /**
-     * Write the given entry from the scMap to the OutputStream. See note on giopVersion. The service context should
+     * Write the given entry from the table to the OutputStream. See note on giopVersion. The service context should
      * know the GIOP version it is meant for.
      */
-    private void writeMapEntry(OutputStream os, Integer id, Object scObj, GIOPVersion gv)
+    private void writeMapEntry(OutputStream os, int id, Object scObj, GIOPVersion gv)
     {
 
         // If it's still in byte[] form, we don't need to
@@ -324,38 +340,42 @@ public class ServiceContexts
      */
     public void put(ServiceContext sc)
     {
-        Integer id = new Integer(sc.getId());
-        scMap.put(id, sc);
+        putValue(sc.getId(), sc);
     }
 
     public void delete(int scId)
     {
-        this.delete(new Integer(scId));
+        int index = indexOf(scId);
+        if (index < 0)
+            return;
+
+        // Keep the remaining entries in order.
+        size--;
+        System.arraycopy(scIds, index + 1, scIds, index, size - index);
+        System.arraycopy(scValues, index + 1, scValues, index, size - index);
+        scValues[size] = null;
     }
 
     public void delete(Integer id)
     {
-        scMap.remove(id);
+        this.delete(id.intValue());
     }
 
     public ServiceContext get(int scId)
     {
-        return this.get(new Integer(scId));
-    }
-
-    public ServiceContext get(Integer id)
-    {
-        Object result = scMap.get(id);
-        if (result == null)
+        int index = indexOf(scId);
+        if (index < 0)
             return null;
 
+        Object result = scValues[index];
+
         // Lazy unmarshaling on first use.
         if (result instanceof byte[])
         {
 
-            ServiceContext sc = unmarshal(id, (byte[]) result);
+            ServiceContext sc = unmarshal(scId, (byte[]) result);
 
-            scMap.put(id, sc);
+            scValues[index] = sc;
 
             return sc;
         }
@@ -365,19 +385,81 @@ public class ServiceContexts
         }
     }
 
+    public ServiceContext get(Integer id)
+    {
+        return this.get(id.intValue());
+    }
+
+    private int indexOf(int scId)
+    {
+        for (int ctr = 0; ctr < size; ctr++)
+        {
+            if (scIds[ctr] == scId)
+                return ctr;
+        }
+        return -1;
+    }
+
+    // Sets the value for scId, replacing any value it already has.
+    private void putValue(int scId, Object value)
+    {
+        int index = indexOf(scId);
+        if (index >= 0)
+        {
+            scValues[index] = value;
+            return;
+        }
+
+        appendValue(scId, value);
+    }
+
+    // Adds a value for scId, which must not have one yet.
+    private void appendValue(int scId, Object value)
+    {
+        if (size == scIds.length)
+        {
+            int newLength = Math.max(INITIAL_CAPACITY, size * 2);
+            int[] newIds = new int[newLength];
+            Object[] newValues = new Object[newLength];
+            System.arraycopy(scIds, 0, newIds, 0, size);
+            System.arraycopy(scValues, 0, newValues, 0, size);
+            scIds = newIds;
+            scValues = newValues;
+        }
+
+        scIds[size] = scId;
+        scValues[size] = value;
+        size++;
+    }
+
+    private static final int[] NO_IDS = new int[0];
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Larger counts read from a stream are not trusted for sizing the table up front.
+    private static final int MAX_INITIAL_CAPACITY = 64;
+
     private ORB orb;
 
     /**
-     * Map of all ServiceContext objects in this container.
+     * Table of all ServiceContext objects in this container, in the order they were added.
      * 
-     * Keys are java.lang.Integers for service context IDs. Values are either instances of ServiceContext or the
-     * unmarshaled byte arrays (unmarshaled on first use).
+     * scIds holds the service context IDs, and the entry at the same index of scValues is either an instance of
+     * ServiceContext or the unmarshaled byte array (unmarshaled on first use). Only the first size entries are used. A
+     * message carries only a few service contexts, so a linear search over plain arrays is cheaper than a map, and no ID
+     * needs to be boxed.
      * 
      * This provides a mild optimization if we don't happen to use a given service context, but it's main advantage is
      * that it allows us to change the order in which we unmarshal them. We need to do the UnknownExceptionInfo service
      * context after the SendingContextRunTime service context so that we can get the CodeBase if necessary.
      */
-    private Map<Integer, Object> scMap;
+    private int[] scIds;
+
+    private Object[] scValues;
+
+    private int size;
 
     /**
      * If true, write out a special alignment service context to force the correct alignment on re-marshalling.
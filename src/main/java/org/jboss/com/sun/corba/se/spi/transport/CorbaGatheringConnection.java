@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.spi.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A CorbaConnection that can write several buffers with one gathering write, as with
+ * {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])}.
+ * <p>
+ * BufferManagerWriteCollect uses this to send all of the fragments of a message at once while it holds the write lock
+ * of the connection, instead of sending them one by one. Connections that do not implement it are sent one fragment at
+ * a time, as before.
+ */
+public interface CorbaGatheringConnection extends CorbaConnection
+{
+    /**
+     * Writes the remaining bytes of all of the buffers, in order. Like {@link CorbaConnection#write(ByteBuffer)}, this
+     * must not take the write lock, which the caller already holds.
+     */
+    public void write(ByteBuffer[] byteBuffers) throws IOException;
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2010, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.jboss.com.sun.corba.se.spi.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A CorbaConnection that reads ahead into a buffer of its own, so that several GIOP messages can be received with one
+ * read.
+ * <p>
+ * MessageBase.readGIOPMessage takes each message out of this buffer when it holds the whole message, instead of
+ * reading the header and the body separately, and leaves any bytes that follow it in the buffer for the next message.
+ * Connections that do not implement it are read one header and one body at a time, as before.
+ * <p>
+ * The selector does not know about bytes that have already been read ahead, so a connection that implements this must
+ * keep reading messages while its read-ahead buffer has bytes remaining, before it waits for the channel again.
+ */
+public interface CorbaReadAheadConnection extends CorbaConnection
+{
+    /**
+     * Returns the read-ahead buffer of this connection. Its bytes from position to limit have been read but not yet
+     * consumed, so a new buffer must be flipped for reading (empty). Its capacity must be at least the GIOP header
+     * length.
+     */
+    public ByteBuffer getReadAheadBuffer();
+
+    /**
+     * Reads as many bytes as are available into byteBuffer, from its position up to its limit, waiting at most
+     * max_wait_time for the first one. Must read at least one byte or throw an IOException.
+     */
+    public void readAhead(ByteBuffer byteBuffer, long max_wait_time) throws IOException;
+}